@@ -0,0 +1,134 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.annotation;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import reactor.core.publisher.Mono;
+
+/**
+ * Measures the per-call overhead of
+ * {@link AnnotationAwareReactiveRetryOperationsInterceptor#invoke} on the
+ * steady state path (delegate already resolved) and on the first call of a
+ * method (delegate resolution). The returned publisher is not subscribed, so
+ * only the interception and the pipeline assembly are measured.
+ * <p>
+ * Run with {@code ./gradlew jmh -PjmhIncludes=AnnotationAware}, the {@code gc}
+ * profiler is enabled by default.
+ *
+ * @author Mahdi Bohloul
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnnotationAwareReactiveRetryOperationsInterceptorBenchmark {
+
+	private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+
+	private AnnotationAwareReactiveRetryOperationsInterceptor interceptor;
+
+	private MethodInvocation retryableInvocation;
+
+	private MethodInvocation plainInvocation;
+
+	@Setup
+	public void setUp() throws NoSuchMethodException {
+		this.interceptor = newInterceptor();
+		BenchmarkService target = new BenchmarkService();
+		this.retryableInvocation = new SimpleMethodInvocation(target,
+				BenchmarkService.class.getMethod("retryable"));
+		this.plainInvocation = new SimpleMethodInvocation(target, BenchmarkService.class.getMethod("plain"));
+		this.interceptor.invoke(this.retryableInvocation);
+		this.interceptor.invoke(this.plainInvocation);
+	}
+
+	@Benchmark
+	public Object retryableCacheHit() throws Throwable {
+		return this.interceptor.invoke(this.retryableInvocation);
+	}
+
+	@Benchmark
+	public Object plainCacheHit() throws Throwable {
+		return this.interceptor.invoke(this.plainInvocation);
+	}
+
+	@Benchmark
+	public Object retryableCacheMiss() throws Throwable {
+		return newInterceptor().invoke(this.retryableInvocation);
+	}
+
+	private AnnotationAwareReactiveRetryOperationsInterceptor newInterceptor() {
+		return withBeanFactory(new AnnotationAwareReactiveRetryOperationsInterceptor());
+	}
+
+	private AnnotationAwareReactiveRetryOperationsInterceptor withBeanFactory(
+			AnnotationAwareReactiveRetryOperationsInterceptor interceptor) {
+		interceptor.setBeanFactory(this.beanFactory);
+		return interceptor;
+	}
+
+	public static class BenchmarkService {
+		private static final Mono<String> VALUE = Mono.just("value");
+
+		@ReactiveRetryable(maxAttempts = 3)
+		public Mono<String> retryable() {
+			return VALUE;
+		}
+
+		public Mono<String> plain() {
+			return VALUE;
+		}
+	}
+
+	private static final class SimpleMethodInvocation implements MethodInvocation {
+		private static final Object[] NO_ARGUMENTS = new Object[0];
+
+		private final Object target;
+
+		private final Method method;
+
+		SimpleMethodInvocation(Object target, Method method) {
+			this.target = target;
+			this.method = method;
+		}
+
+		@Override
+		public Method getMethod() {
+			return this.method;
+		}
+
+		@Override
+		public Object[] getArguments() {
+			return NO_ARGUMENTS;
+		}
+
+		@Override
+		public Object proceed() throws Throwable {
+			return this.method.invoke(this.target, NO_ARGUMENTS);
+		}
+
+		@Override
+		public Object getThis() {
+			return this.target;
+		}
+
+		@Override
+		public AccessibleObject getStaticPart() {
+			return this.method;
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the include/exclude matching that
+ * {@link ReactiveRetryInterceptorBuilder} applies to every failure before
+ * deciding whether to retry it.
+ * <p>
+ * Run with {@code ./gradlew jmh -PjmhIncludes=ErrorFilter}, the {@code gc}
+ * profiler is enabled by default.
+ *
+ * @author Mahdi Bohloul
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ErrorFilterBenchmark {
+
+	private static final Throwable INCLUDED = new TimeoutException("included");
+
+	private static final Throwable EXCLUDED = new IllegalArgumentException("excluded");
+
+	private static final Throwable UNMATCHED = new UnsupportedOperationException("unmatched");
+
+	private static final Throwable WRAPPED = new RuntimeException(new RuntimeException(INCLUDED));
+
+	private ReactiveRetryInterceptorBuilder<?> emptyFilter;
+
+	private ReactiveRetryInterceptorBuilder<?> listFilter;
+
+	private ReactiveRetryInterceptorBuilder<?> causeFilter;
+
+	@Setup
+	@SuppressWarnings("unchecked")
+	public void setUp() {
+		this.emptyFilter = ReactiveRetryInterceptorBuilder.maxAttempts();
+		this.listFilter = ReactiveRetryInterceptorBuilder.maxAttempts()
+				.setExclude(new Class[]{IllegalArgumentException.class, ArithmeticException.class,
+						NoSuchElementException.class, ConcurrentModificationException.class})
+				.setInclude(new Class[]{IOException.class, UncheckedIOException.class, IllegalStateException.class,
+						ClassCastException.class, IndexOutOfBoundsException.class, TimeoutException.class});
+		this.causeFilter = ReactiveRetryInterceptorBuilder.maxAttempts().setInclude(new Class[]{TimeoutException.class})
+				.setCauseDepth(2);
+	}
+
+	@Benchmark
+	public boolean noRules() {
+		return this.emptyFilter.errorFilter(INCLUDED);
+	}
+
+	@Benchmark
+	public boolean includeMatch() {
+		return this.listFilter.errorFilter(INCLUDED);
+	}
+
+	@Benchmark
+	public boolean excludeMatch() {
+		return this.listFilter.errorFilter(EXCLUDED);
+	}
+
+	@Benchmark
+	public boolean noMatch() {
+		return this.listFilter.errorFilter(UNMATCHED);
+	}
+
+	@Benchmark
+	public boolean causeMatch() {
+		return this.causeFilter.errorFilter(WRAPPED);
+	}
+}
@@ -0,0 +1,131 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.framework.ProxyFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Measures {@link ReactiveRetryInterceptor#invoke} end to end through a CGLIB
+ * proxy for {@link Mono} and {@link Flux} methods on the success, the
+ * retry-then-succeed and the exhausted paths, and for a method with arguments,
+ * which are shared by the attempts instead of being copied for each of them.
+ * Each operation subscribes to the returned publisher and waits for its
+ * termination; the sources are synchronous, so no scheduler hop is measured.
+ * <p>
+ * Run with {@code ./gradlew jmh -PjmhIncludes=ReactiveRetryInterceptor}, the
+ * {@code gc} profiler is enabled by default.
+ *
+ * @author Mahdi Bohloul
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReactiveRetryInterceptorBenchmark {
+
+	private BenchmarkService service;
+
+	@Setup
+	public void setUp() {
+		ProxyFactory proxyFactory = new ProxyFactory(new BenchmarkService());
+		proxyFactory.setProxyTargetClass(true);
+		proxyFactory.addAdvice(ReactiveRetryInterceptorBuilder.maxAttempts().setMaxAttempts(3).build());
+		this.service = (BenchmarkService) proxyFactory.getProxy();
+	}
+
+	@Benchmark
+	public Object monoSuccess() {
+		return this.service.monoSuccess().block();
+	}
+
+	@Benchmark
+	public Object monoRetryThenSucceed() {
+		return this.service.monoRetryThenSucceed().block();
+	}
+
+	@Benchmark
+	public Object monoRetryWithArguments() {
+		return this.service.monoRetryWithArguments("value", 1).block();
+	}
+
+	@Benchmark
+	public Object monoExhausted() {
+		return this.service.monoExhausted().onErrorResume(error -> Mono.empty()).block();
+	}
+
+	@Benchmark
+	public Object fluxSuccess() {
+		return this.service.fluxSuccess().blockLast();
+	}
+
+	@Benchmark
+	public Object fluxRetryThenSucceed() {
+		return this.service.fluxRetryThenSucceed().blockLast();
+	}
+
+	@Benchmark
+	public Object fluxExhausted() {
+		return this.service.fluxExhausted().onErrorResume(error -> Flux.empty()).blockLast();
+	}
+
+	public static class BenchmarkService {
+		private static final BenchmarkException FAILURE = new BenchmarkException();
+
+		private long monoCalls;
+
+		private long fluxCalls;
+
+		public Mono<String> monoSuccess() {
+			return Mono.just("value");
+		}
+
+		public Mono<String> monoRetryThenSucceed() {
+			if (this.monoCalls++ % 2 == 0)
+				return Mono.error(FAILURE);
+			return Mono.just("value");
+		}
+
+		public Mono<String> monoRetryWithArguments(String value, int quantity) {
+			if (this.monoCalls++ % 2 == 0)
+				return Mono.error(FAILURE);
+			return Mono.just(value);
+		}
+
+		public Mono<String> monoExhausted() {
+			return Mono.error(FAILURE);
+		}
+
+		public Flux<String> fluxSuccess() {
+			return Flux.just("first", "second");
+		}
+
+		public Flux<String> fluxRetryThenSucceed() {
+			if (this.fluxCalls++ % 2 == 0)
+				return Flux.error(FAILURE);
+			return Flux.just("first", "second");
+		}
+
+		public Flux<String> fluxExhausted() {
+			return Flux.error(FAILURE);
+		}
+	}
+
+	private static final class BenchmarkException extends RuntimeException {
+		BenchmarkException() {
+			super("benchmark failure", null, false, false);
+		}
+	}
+}
@@ -1,21 +1,64 @@
 package io.github.mahdibohloul.projectreactor.retry.aop.annotation;
 
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.AimdConcurrencyLimit;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.Bulkhead;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.CircuitBreaker;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.CompositeReactiveRetryListener;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.ConcurrencyLimit;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.ConcurrencyLimitAlgorithm;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.GradientConcurrencyLimit;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.LastSuccessCache;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.LoggingReactiveRetryListener;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.ReactiveRecoverer;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.ReactiveResumer;
 import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.ReactiveRetryInterceptorBuilder;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.ReactiveRetryListener;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.ReactiveRetryPolicyRegistry;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.RetryBudget;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.RetryDelayHint;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.VegasConcurrencyLimit;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.aop.IntroductionInterceptor;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.BeanInitializationException;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.interceptor.SimpleKeyGenerator;
 import org.springframework.context.expression.BeanFactoryResolver;
 import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.expression.EvaluationException;
+import org.springframework.expression.Expression;
+import org.springframework.expression.common.CompositeStringExpression;
+import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.ExpressionState;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.ast.BeanReference;
+import org.springframework.expression.spel.ast.TypeReference;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
-import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * Enable reactive retryable aop capability. It is invoking and delegates to an
@@ -23,18 +66,40 @@ import org.springframework.util.StringUtils;
  * annotation.
  */
 public class AnnotationAwareReactiveRetryOperationsInterceptor implements IntroductionInterceptor, BeanFactoryAware {
+	private static final Logger log = LoggerFactory.getLogger(AnnotationAwareReactiveRetryOperationsInterceptor.class);
 
 	private static final MethodInterceptor NULL_INTERCEPTOR = methodInvocation -> {
 		throw new UnsupportedOperationException(
 				"No reactive retry advice available for method " + methodInvocation.getMethod());
 	};
 
+	private static final KeyGenerator ARGUMENTS_KEY_GENERATOR = new SimpleKeyGenerator();
+
+	private static final SpelExpressionParser PARSER = new SpelExpressionParser(new SpelParserConfiguration(
+			SpelCompilerMode.MIXED, AnnotationAwareReactiveRetryOperationsInterceptor.class.getClassLoader()));
+
+	private static final TemplateParserContext PARSER_CONTEXT = new TemplateParserContext();
+
+	private static final int DEFAULT_INITIAL_CONCURRENCY_LIMIT = 20;
+
+	private static final int DEFAULT_MAX_CONCURRENCY_LIMIT = 1000;
+
 	private final StandardEvaluationContext evaluationContext = new StandardEvaluationContext();
 
-	private final ConcurrentReferenceHashMap<Object, ConcurrentMap<Method, MethodInterceptor>> delegates = new ConcurrentReferenceHashMap<>();
+	private final ConcurrentMap<Method, Delegate> delegates = new ConcurrentHashMap<>(64);
 
 	private BeanFactory beanFactory;
 
+	private volatile ReactiveRetryListener defaultListener;
+
+	private volatile RetryBudget defaultRetryBudget;
+
+	private volatile RetryDelayHint defaultRetryDelayHint;
+
+	private String schedulerName;
+
+	private volatile Scheduler scheduler;
+
 	/**
 	 * This method is invoked by the Spring container to create a new instance of
 	 * the interceptor.
@@ -44,74 +109,415 @@ public class AnnotationAwareReactiveRetryOperationsInterceptor implements Introd
 	 */
 	@Override
 	public Object invoke(MethodInvocation invocation) throws Throwable {
-		MethodInterceptor delegate = getDelegate(invocation.getThis(), invocation.getMethod());
+		Object target = invocation.getThis();
+		MethodInterceptor delegate = getDelegate(target != null ? target.getClass() : null, invocation.getMethod());
 		if (delegate != null)
 			return delegate.invoke(invocation);
 		return invocation.proceed();
 	}
 
-	private MethodInterceptor getDelegate(Object target, Method method) {
-		ConcurrentMap<Method, MethodInterceptor> cachedMethods = this.delegates.get(target);
-		if (cachedMethods == null)
-			cachedMethods = new ConcurrentHashMap<>();
-		MethodInterceptor delegate = cachedMethods.get(method);
-		if (delegate == null) {
-			MethodInterceptor interceptor = NULL_INTERCEPTOR;
-			ReactiveRetryable reactiveRetryable = AnnotatedElementUtils.findMergedAnnotation(method,
-					ReactiveRetryable.class);
-			if (reactiveRetryable == null)
-				reactiveRetryable = classLevelAnnotation(method, ReactiveRetryable.class);
-			if (reactiveRetryable == null)
-				reactiveRetryable = findAnnotationOnTarget(target, method, ReactiveRetryable.class);
-			if (reactiveRetryable != null) {
-				if (StringUtils.hasText(reactiveRetryable.interceptor())) {
-					interceptor = this.beanFactory.getBean(reactiveRetryable.interceptor(), MethodInterceptor.class);
-				} else if (reactiveRetryable.exponentialBackoff()) {
-					interceptor = getBackOffInterceptor(target, method, reactiveRetryable);
-				} else if (reactiveRetryable.shouldCheckMaxInRow()) {
-					interceptor = getMaxInRowInterceptor(target, method, reactiveRetryable);
-				} else if (reactiveRetryable.backOffFixDelay() > 0) {
-					interceptor = getFixedDelayInterceptor(target, method, reactiveRetryable);
-				} else {
-					interceptor = getMaxAttemptsInterceptor(target, method, reactiveRetryable);
-				}
+	/**
+	 * Resolve and cache the delegates of all public methods of the given target
+	 * class, so that the first invocation of each method does not pay for the
+	 * annotation lookup and the interceptor creation.
+	 *
+	 * @param targetClass
+	 *            the class of the advised bean
+	 * @param failFast
+	 *            whether an invalid configuration should be thrown, otherwise the
+	 *            method is skipped and reports its failure on the first invocation
+	 * @throws BeanInitializationException
+	 *             if {@code failFast} is set and a method has an invalid
+	 *             configuration
+	 */
+	void resolveDelegates(Class<?> targetClass, boolean failFast) {
+		resolveDelegates(targetClass, targetClass.getMethods(), failFast);
+		for (Class<?> ifc : ClassUtils.getAllInterfacesForClassAsSet(targetClass))
+			resolveDelegates(targetClass, ifc.getMethods(), failFast);
+	}
+
+	/**
+	 * @param method
+	 *            the advised method
+	 * @return whether the delegate of the given method is already resolved
+	 */
+	boolean isResolved(Method method) {
+		return this.delegates.containsKey(method);
+	}
+
+	private void resolveDelegates(Class<?> targetClass, Method[] methods, boolean failFast) {
+		for (Method method : methods) {
+			if (method.getDeclaringClass() == Object.class)
+				continue;
+			try {
+				getDelegate(targetClass, method);
+			} catch (RuntimeException ex) {
+				if (failFast)
+					throw new BeanInitializationException("Invalid @ReactiveRetryable configuration on method "
+							+ ClassUtils.getQualifiedMethodName(method, targetClass), ex);
 			}
-			cachedMethods.putIfAbsent(method, interceptor);
-			delegate = cachedMethods.get(method);
 		}
-		this.delegates.putIfAbsent(target, cachedMethods);
-		return delegate == NULL_INTERCEPTOR ? null : delegate;
 	}
 
-	private MethodInterceptor getMaxAttemptsInterceptor(Object target, Method method,
+	private MethodInterceptor getDelegate(Class<?> targetClass, Method method) {
+		Delegate delegate = this.delegates.get(method);
+		if (delegate == null)
+			delegate = this.delegates.computeIfAbsent(method,
+					key -> new Delegate(targetClass, resolveDelegate(targetClass, key)));
+		MethodInterceptor interceptor = delegate.targetClass == targetClass
+				? delegate.interceptor
+				: delegate.targetClassInterceptors.get(targetClassKey(targetClass));
+		if (interceptor == null)
+			interceptor = delegate.targetClassInterceptors.computeIfAbsent(targetClassKey(targetClass),
+					key -> resolveDelegate(targetClass, method));
+		return interceptor == NULL_INTERCEPTOR ? null : interceptor;
+	}
+
+	/**
+	 * The key of the given target class in the delegates of the other target
+	 * classes of a method, which cannot be {@code null}.
+	 */
+	private static Class<?> targetClassKey(Class<?> targetClass) {
+		return targetClass != null ? targetClass : Void.class;
+	}
+
+	private MethodInterceptor resolveDelegate(Class<?> targetClass, Method method) {
+		ReactiveRetryable reactiveRetryable = AnnotatedElementUtils.findMergedAnnotation(method,
+				ReactiveRetryable.class);
+		if (reactiveRetryable == null)
+			reactiveRetryable = classLevelAnnotation(method, ReactiveRetryable.class);
+		if (reactiveRetryable == null)
+			reactiveRetryable = findAnnotationOnTarget(targetClass, method, ReactiveRetryable.class);
+		if (reactiveRetryable == null)
+			return NULL_INTERCEPTOR;
+		if (StringUtils.hasText(reactiveRetryable.interceptor()))
+			return this.beanFactory.getBean(reactiveRetryable.interceptor(), MethodInterceptor.class);
+		if (StringUtils.hasText(reactiveRetryable.policy()))
+			return getPolicyInterceptor(targetClass, method, reactiveRetryable);
+		if (reactiveRetryable.hedging())
+			return getHedgingInterceptor(targetClass, method, reactiveRetryable);
+		if (reactiveRetryable.exponentialBackoff())
+			return getBackOffInterceptor(targetClass, method, reactiveRetryable);
+		if (reactiveRetryable.shouldCheckMaxInRow())
+			return getMaxInRowInterceptor(targetClass, method, reactiveRetryable);
+		if (backOffFixDelay(reactiveRetryable) > 0)
+			return getFixedDelayInterceptor(targetClass, method, reactiveRetryable);
+		return getMaxAttemptsInterceptor(targetClass, method, reactiveRetryable);
+	}
+
+	private MethodInterceptor getMaxAttemptsInterceptor(Class<?> targetClass, Method method,
 			ReactiveRetryable reactiveRetryable) {
-		return ReactiveRetryInterceptorBuilder.maxAttempts().setMaxAttempts(reactiveRetryable.maxAttempts())
-				.setInclude(reactiveRetryable.include()).setExclude(reactiveRetryable.exclude()).build();
+		return build(ReactiveRetryInterceptorBuilder.maxAttempts().setMaxAttempts(maxAttempts(reactiveRetryable))
+				.setInclude(reactiveRetryable.include()).setExclude(reactiveRetryable.exclude()), targetClass, method,
+				reactiveRetryable);
 	}
 
-	private MethodInterceptor getFixedDelayInterceptor(Object target, Method method,
+	private MethodInterceptor getFixedDelayInterceptor(Class<?> targetClass, Method method,
 			ReactiveRetryable reactiveRetryable) {
-		return ReactiveRetryInterceptorBuilder.fixedDelay().setFixedDelay(reactiveRetryable.backOffFixDelay())
-				.setMaxAttempts(reactiveRetryable.maxAttempts()).setInclude(reactiveRetryable.include())
-				.setExclude(reactiveRetryable.exclude()).build();
+		return build(ReactiveRetryInterceptorBuilder.fixedDelay().setFixedDelay(backOffFixDelay(reactiveRetryable))
+				.setMaxAttempts(maxAttempts(reactiveRetryable)).setInclude(reactiveRetryable.include())
+				.setExclude(reactiveRetryable.exclude()), targetClass, method, reactiveRetryable);
 	}
 
-	private MethodInterceptor getMaxInRowInterceptor(Object target, Method method,
+	private MethodInterceptor getMaxInRowInterceptor(Class<?> targetClass, Method method,
 			ReactiveRetryable reactiveRetryable) {
-		return ReactiveRetryInterceptorBuilder.maxInRow().setMaxAttempts(reactiveRetryable.maxAttempts())
-				.setInclude(reactiveRetryable.include()).setExclude(reactiveRetryable.exclude()).build();
+		return build(ReactiveRetryInterceptorBuilder.maxInRow().setMaxAttempts(maxAttempts(reactiveRetryable))
+				.setInclude(reactiveRetryable.include()).setExclude(reactiveRetryable.exclude()), targetClass, method,
+				reactiveRetryable);
 	}
 
-	private MethodInterceptor getBackOffInterceptor(Object target, Method method, ReactiveRetryable reactiveRetryable) {
-		return ReactiveRetryInterceptorBuilder.backOff().setBackOffFactor(reactiveRetryable.backOffFactor())
-				.setMaxDelay(reactiveRetryable.backOffMaxDelay()).setMinDelay(reactiveRetryable.backOffMinDelay())
+	private MethodInterceptor getBackOffInterceptor(Class<?> targetClass, Method method,
+			ReactiveRetryable reactiveRetryable) {
+		return build(ReactiveRetryInterceptorBuilder.backOff().setAdaptive(reactiveRetryable.adaptiveBackoff())
+				.setAlgorithm(reactiveRetryable.backOffAlgorithm())
+				.setBackOffFactor(evaluate(reactiveRetryable.backOffFactorExpression(), Double.class,
+						reactiveRetryable.backOffFactor()))
+				.setMaxDelay(backOffMaxDelay(reactiveRetryable))
+				.setMinDelay(evaluate(reactiveRetryable.backOffMinDelayExpression(), Long.class,
+						reactiveRetryable.backOffMinDelay()))
 				.setExclude(reactiveRetryable.exclude()).setInclude(reactiveRetryable.include())
-				.setMaxAttempts(reactiveRetryable.maxAttempts()).build();
+				.setMaxAttempts(maxAttempts(reactiveRetryable)), targetClass, method, reactiveRetryable);
+	}
+
+	private MethodInterceptor getPolicyInterceptor(Class<?> targetClass, Method method,
+			ReactiveRetryable reactiveRetryable) {
+		return build(ReactiveRetryInterceptorBuilder.policy()
+				.setPolicy(this.beanFactory.getBean(ReactiveRetryPolicyRegistry.class), reactiveRetryable.policy())
+				.setInclude(reactiveRetryable.include()).setExclude(reactiveRetryable.exclude()), targetClass, method,
+				reactiveRetryable);
+	}
+
+	private MethodInterceptor getHedgingInterceptor(Class<?> targetClass, Method method,
+			ReactiveRetryable reactiveRetryable) {
+		ReactiveRetryInterceptorBuilder.HedgingRetryInterceptorBuilder builder = ReactiveRetryInterceptorBuilder
+				.hedging().setMaxHedges(reactiveRetryable.maxHedges());
+		if (reactiveRetryable.hedgeDelay() >= 0)
+			builder.setHedgeDelay(reactiveRetryable.hedgeDelay());
+		if (reactiveRetryable.hedgeDelayPercentile() > 0)
+			builder.setHedgeDelayPercentile(reactiveRetryable.hedgeDelayPercentile());
+		return build(builder.setMaxAttempts(maxAttempts(reactiveRetryable)).setInclude(reactiveRetryable.include())
+				.setExclude(reactiveRetryable.exclude()), targetClass, method, reactiveRetryable);
+	}
+
+	private <T extends MethodInterceptor> T build(ReactiveRetryInterceptorBuilder<T> builder, Class<?> targetClass,
+			Method method, ReactiveRetryable reactiveRetryable) {
+		return builder.setName(methodSignature(targetClass, method)).setListener(getListener(reactiveRetryable))
+				.setRetryBudget(getRetryBudget(reactiveRetryable))
+				.setRetryDelayHint(getRetryDelayHint(reactiveRetryable))
+				.setMaxHintedDelay(getMaxHintedDelay(reactiveRetryable)).setScheduler(getScheduler())
+				.setBlocking(reactiveRetryable.blocking())
+				.setCircuitBreaker(getCircuitBreaker(reactiveRetryable))
+				.setBulkhead(reactiveRetryable.concurrencyLimit() == ConcurrencyLimitAlgorithm.NONE
+						? getBulkhead(reactiveRetryable.maxConcurrentCalls(),
+								Duration.ofMillis(reactiveRetryable.maxConcurrentCallsWait()))
+						: null)
+				.setRetryBulkhead(getBulkhead(reactiveRetryable.maxConcurrentRetries(), Duration.ZERO))
+				.setAttemptBulkhead(getAttemptBulkhead(reactiveRetryable))
+				.setAttemptTimeout(timeout(reactiveRetryable.attemptTimeout()))
+				.setOverallTimeout(timeout(reactiveRetryable.overallTimeout()))
+				.setCauseDepth(reactiveRetryable.causeDepth())
+				.setIncludePredicate(failurePredicate(reactiveRetryable.includeExpression()))
+				.setExcludePredicate(failurePredicate(reactiveRetryable.excludeExpression()))
+				.setRecoverer(getRecoverer(targetClass, method, reactiveRetryable))
+				.setFallbackCache(getFallbackCache(reactiveRetryable))
+				.setCoalescing(getCoalescingKeyGenerator(reactiveRetryable))
+				.setResumer(getResumer(method, reactiveRetryable)).build();
+	}
+
+	private long maxAttempts(ReactiveRetryable reactiveRetryable) {
+		return evaluate(reactiveRetryable.maxAttemptsExpression(), Long.class, reactiveRetryable.maxAttempts());
+	}
+
+	private long backOffMaxDelay(ReactiveRetryable reactiveRetryable) {
+		return evaluate(reactiveRetryable.backOffMaxDelayExpression(), Long.class,
+				reactiveRetryable.backOffMaxDelay());
+	}
+
+	private long backOffFixDelay(ReactiveRetryable reactiveRetryable) {
+		return evaluate(reactiveRetryable.backOffFixDelayExpression(), Long.class,
+				reactiveRetryable.backOffFixDelay());
+	}
+
+	/**
+	 * Evaluates the given expression once, when the interceptor is created.
+	 */
+	private <T> T evaluate(String expression, Class<T> type, T defaultValue) {
+		if (!StringUtils.hasText(expression))
+			return defaultValue;
+		T value = parseExpression(expression).getValue(this.evaluationContext, type);
+		Assert.state(value != null, () -> "Expression '" + expression + "' evaluated to null");
+		return value;
+	}
+
+	/**
+	 * Creates a predicate evaluating the given expression against each failure. The
+	 * evaluation context is shared, since evaluating an expression against a root
+	 * object does not modify the context. The failure and its causes are of mixed
+	 * types, so the compiled expression falls back to interpretation for the types
+	 * it was not compiled for, and a failure the expression cannot be evaluated
+	 * against, such as a cause without the referenced property, does not match. The
+	 * first such failure of each expression is logged, so that a misspelled
+	 * property does not silently match nothing.
+	 */
+	private Predicate<Throwable> failurePredicate(String expression) {
+		if (!StringUtils.hasText(expression))
+			return null;
+		Expression parsed = parseExpression(expression);
+		validateFailureExpression(expression, parsed);
+		AtomicBoolean logged = new AtomicBoolean();
+		return failure -> {
+			try {
+				return Boolean.TRUE.equals(parsed.getValue(this.evaluationContext, failure, Boolean.class));
+			} catch (EvaluationException ex) {
+				if (!logged.get() && logged.compareAndSet(false, true))
+					log.warn("Expression '{}' cannot be evaluated against {}, it does not match such failures: {}",
+							expression, failure.getClass().getName(), ex.getMessage());
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Resolves the types and beans the given failure expression references, which
+	 * fail the evaluation whatever the failure is.
+	 */
+	private void validateFailureExpression(String expression, Expression parsed) {
+		if (parsed instanceof CompositeStringExpression composite) {
+			for (Expression part : composite.getExpressions())
+				validateFailureExpression(expression, part);
+		} else if (parsed instanceof SpelExpression spelExpression) {
+			validateFailureExpression(expression, spelExpression.getAST(),
+					new ExpressionState(this.evaluationContext));
+		}
+	}
+
+	private void validateFailureExpression(String expression, SpelNode node, ExpressionState state) {
+		if (node instanceof TypeReference || node instanceof BeanReference) {
+			try {
+				node.getValue(state);
+			} catch (EvaluationException ex) {
+				throw new IllegalStateException("Expression '" + expression + "' cannot be evaluated against a failure",
+						ex);
+			}
+		}
+		for (int i = 0; i < node.getChildCount(); i++)
+			validateFailureExpression(expression, node.getChild(i), state);
+	}
+
+	/**
+	 * Resolves the placeholders of the given expression and parses it, as a
+	 * template if it contains {@code #{...}} delimiters.
+	 */
+	private Expression parseExpression(String expression) {
+		String resolved = expression;
+		if (this.beanFactory instanceof ConfigurableBeanFactory configurableBeanFactory)
+			resolved = configurableBeanFactory.resolveEmbeddedValue(expression);
+		Assert.state(resolved != null, () -> "Expression '" + expression + "' resolved to null");
+		if (resolved.contains(PARSER_CONTEXT.getExpressionPrefix())
+				&& resolved.endsWith(PARSER_CONTEXT.getExpressionSuffix()))
+			return PARSER.parseExpression(resolved, PARSER_CONTEXT);
+		return PARSER.parseExpression(resolved);
+	}
+
+	private ReactiveRecoverer getRecoverer(Class<?> targetClass, Method method, ReactiveRetryable reactiveRetryable) {
+		if (targetClass == null)
+			return null;
+		return RecoverAnnotationReactiveRecoverer.of(targetClass, method, reactiveRetryable.recover());
+	}
+
+	private LastSuccessCache getFallbackCache(ReactiveRetryable reactiveRetryable) {
+		if (!reactiveRetryable.fallbackToLastSuccess())
+			return null;
+		return new LastSuccessCache(reactiveRetryable.fallbackMaximumSize(),
+				Duration.ofMillis(reactiveRetryable.fallbackTimeToLive()), reactiveRetryable.fallbackWeakValues());
+	}
+
+	private KeyGenerator getCoalescingKeyGenerator(ReactiveRetryable reactiveRetryable) {
+		if (!reactiveRetryable.coalesce())
+			return null;
+		if (StringUtils.hasText(reactiveRetryable.coalesceKey()))
+			return new ExpressionKeyGenerator(parseExpression(reactiveRetryable.coalesceKey()),
+					this.evaluationContext.getBeanResolver());
+		return ARGUMENTS_KEY_GENERATOR;
 	}
 
-	private <A extends Annotation> A findAnnotationOnTarget(Object target, Method method, Class<A> annotation) {
+	private ReactiveResumer getResumer(Method method, ReactiveRetryable reactiveRetryable) {
+		if (!StringUtils.hasText(reactiveRetryable.resumeFrom()))
+			return null;
+		Assert.state(StringUtils.hasText(reactiveRetryable.resumeParameter()),
+				() -> "resumeParameter must be set with resumeFrom on method " + method);
+		return new ExpressionResumer(method, reactiveRetryable.resumeParameter(),
+				parseExpression(reactiveRetryable.resumeFrom()), this.evaluationContext.getBeanResolver());
+	}
+
+	private ReactiveRetryListener getListener(ReactiveRetryable reactiveRetryable) {
+		String[] names = reactiveRetryable.listeners();
+		if (names.length == 0)
+			return getDefaultListener();
+		if (names.length == 1 && !StringUtils.hasText(names[0]))
+			return ReactiveRetryListener.NOOP;
+		List<ReactiveRetryListener> listeners = new ArrayList<>(names.length);
+		for (String name : names)
+			listeners.add(this.beanFactory.getBean(name, ReactiveRetryListener.class));
+		return CompositeReactiveRetryListener.of(listeners);
+	}
+
+	private ReactiveRetryListener getDefaultListener() {
+		ReactiveRetryListener listener = this.defaultListener;
+		if (listener == null) {
+			List<ReactiveRetryListener> listeners = this.beanFactory.getBeanProvider(ReactiveRetryListener.class)
+					.orderedStream().toList();
+			listener = listeners.isEmpty() ? new LoggingReactiveRetryListener()
+					: CompositeReactiveRetryListener.of(listeners);
+			this.defaultListener = listener;
+		}
+		return listener;
+	}
+
+	private RetryBudget getRetryBudget(ReactiveRetryable reactiveRetryable) {
+		if (StringUtils.hasText(reactiveRetryable.retryBudget()))
+			return this.beanFactory.getBean(reactiveRetryable.retryBudget(), RetryBudget.class);
+		RetryBudget retryBudget = this.defaultRetryBudget;
+		if (retryBudget == null) {
+			retryBudget = this.beanFactory.getBeanProvider(RetryBudget.class).getIfUnique(() -> RetryBudget.UNLIMITED);
+			this.defaultRetryBudget = retryBudget;
+		}
+		return retryBudget;
+	}
+
+	private Duration getMaxHintedDelay(ReactiveRetryable reactiveRetryable) {
+		long maxDelay = backOffMaxDelay(reactiveRetryable);
+		return maxDelay > 0 ? Duration.ofMillis(maxDelay) : null;
+	}
+
+	private RetryDelayHint getRetryDelayHint(ReactiveRetryable reactiveRetryable) {
+		if (StringUtils.hasText(reactiveRetryable.retryDelayHint()))
+			return this.beanFactory.getBean(reactiveRetryable.retryDelayHint(), RetryDelayHint.class);
+		RetryDelayHint retryDelayHint = this.defaultRetryDelayHint;
+		if (retryDelayHint == null) {
+			retryDelayHint = this.beanFactory.getBeanProvider(RetryDelayHint.class)
+					.getIfUnique(() -> RetryDelayHint.NONE);
+			this.defaultRetryDelayHint = retryDelayHint;
+		}
+		return retryDelayHint;
+	}
+
+	private Scheduler getScheduler() {
+		Scheduler scheduler = this.scheduler;
+		if (scheduler == null) {
+			scheduler = StringUtils.hasText(this.schedulerName)
+					? this.beanFactory.getBean(this.schedulerName, Scheduler.class)
+					: Schedulers.parallel();
+			this.scheduler = scheduler;
+		}
+		return scheduler;
+	}
+
+	private static CircuitBreaker getCircuitBreaker(ReactiveRetryable reactiveRetryable) {
+		if (!reactiveRetryable.circuitBreaker())
+			return null;
+		return new CircuitBreaker(reactiveRetryable.circuitBreakerFailureRate(),
+				reactiveRetryable.circuitBreakerWindowSize(),
+				Duration.ofMillis(reactiveRetryable.circuitBreakerOpenDuration()),
+				reactiveRetryable.circuitBreakerHalfOpenProbes());
+	}
+
+	private static Bulkhead getBulkhead(int maxConcurrentCalls, Duration maxWait) {
+		return maxConcurrentCalls > 0 ? new Bulkhead(maxConcurrentCalls, maxWait) : null;
+	}
+
+	private static Bulkhead getAttemptBulkhead(ReactiveRetryable reactiveRetryable) {
+		int maxLimit = reactiveRetryable.maxConcurrentCalls() > 0 ? reactiveRetryable.maxConcurrentCalls()
+				: DEFAULT_MAX_CONCURRENCY_LIMIT;
+		int initialLimit = Math.min(DEFAULT_INITIAL_CONCURRENCY_LIMIT, maxLimit);
+		ConcurrencyLimit concurrencyLimit = switch (reactiveRetryable.concurrencyLimit()) {
+			case NONE -> null;
+			case AIMD -> new AimdConcurrencyLimit(initialLimit, maxLimit);
+			case VEGAS -> new VegasConcurrencyLimit(initialLimit, maxLimit);
+			case GRADIENT -> new GradientConcurrencyLimit(initialLimit, maxLimit);
+		};
+		return concurrencyLimit != null
+				? new Bulkhead(concurrencyLimit, Duration.ofMillis(reactiveRetryable.maxConcurrentCallsWait()))
+				: null;
+	}
+
+	private static Duration timeout(long millis) {
+		return millis > 0 ? Duration.ofMillis(millis) : null;
+	}
+
+	private static String methodSignature(Class<?> targetClass, Method method) {
+		StringJoiner parameters = new StringJoiner(",", "(", ")");
+		for (Class<?> parameterType : method.getParameterTypes())
+			parameters.add(parameterType.getSimpleName());
+		return ClassUtils.getShortName(targetClass != null ? targetClass : method.getDeclaringClass()) + "."
+				+ method.getName() + parameters;
+	}
+
+	private <A extends Annotation> A findAnnotationOnTarget(Class<?> targetClass, Method method, Class<A> annotation) {
+		if (targetClass == null)
+			return null;
 		try {
-			Method targetMethod = target.getClass().getMethod(method.getName(), method.getParameterTypes());
+			Method targetMethod = targetClass.getMethod(method.getName(), method.getParameterTypes());
 			A ann = AnnotatedElementUtils.findMergedAnnotation(targetMethod, annotation);
 			if (ann == null)
 				ann = classLevelAnnotation(targetMethod, annotation);
@@ -146,4 +552,35 @@ public class AnnotationAwareReactiveRetryOperationsInterceptor implements Introd
 		this.beanFactory = beanFactory;
 		this.evaluationContext.setBeanResolver(new BeanFactoryResolver(beanFactory));
 	}
+
+	/**
+	 * Set the name of the {@link Scheduler} bean of the timers of the retry
+	 * interceptors, see {@link EnableReactiveRetry#scheduler()}.
+	 *
+	 * @param schedulerName
+	 *            the name of the scheduler bean, or empty for
+	 *            {@link Schedulers#parallel()}
+	 */
+	void setSchedulerName(String schedulerName) {
+		this.schedulerName = schedulerName;
+	}
+
+	/**
+	 * The delegate of a method for the target class of its first invocation. The
+	 * delegates of the other target classes, which may inherit a different
+	 * annotation, are looked up by class only, so that a polymorphic call does not
+	 * allocate a composite key.
+	 */
+	private static final class Delegate {
+		private final Class<?> targetClass;
+
+		private final MethodInterceptor interceptor;
+
+		private final ConcurrentMap<Class<?>, MethodInterceptor> targetClassInterceptors = new ConcurrentHashMap<>(4);
+
+		private Delegate(Class<?> targetClass, MethodInterceptor interceptor) {
+			this.targetClass = targetClass;
+			this.interceptor = interceptor;
+		}
+	}
 }
@@ -49,4 +49,33 @@ public @interface EnableReactiveRetry {
 	 * @since 1.2.0
 	 */
 	int order() default Ordered.LOWEST_PRECEDENCE;
+
+	/**
+	 * Indicate whether the retry interceptors of all {@link ReactiveRetryable}
+	 * methods should be built and validated at startup. When enabled, the methods
+	 * of every advised bean, including prototype and lazy beans, are resolved once
+	 * the singletons are instantiated and an invalid configuration, such as
+	 * {@code maxAttempts < 1} or an unknown {@code interceptor()} bean, fails the
+	 * application context startup instead of the first call. The default is
+	 * {@code false}, in which case only the methods of singleton beans are resolved
+	 * eagerly and invalid configurations are reported on the first call.
+	 *
+	 * @return whether to build and validate the retry interceptors at startup
+	 * @since 2.0.0
+	 */
+	boolean eagerInit() default false;
+
+	/**
+	 * The name of the {@link reactor.core.scheduler.Scheduler Scheduler} bean of
+	 * the timers of the retry interceptors: the backoff and hedge delays, the
+	 * timeouts and the waits for a bulkhead permit. For instance a
+	 * {@link io.github.mahdibohloul.projectreactor.retry.aop.interceptor.TimerWheelScheduler
+	 * TimerWheelScheduler}, to keep the retry timers away from the CPU-bound work
+	 * of the application. The default is empty, in which case the timers run on
+	 * {@link reactor.core.scheduler.Schedulers#parallel()}.
+	 *
+	 * @return the name of the scheduler bean
+	 * @since 2.0.0
+	 */
+	String scheduler() default "";
 }
@@ -0,0 +1,40 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.annotation;
+
+import java.lang.reflect.Method;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.BeanResolver;
+import org.springframework.expression.Expression;
+
+/**
+ * {@link KeyGenerator} evaluating a SpEL expression against the arguments of
+ * the invoked method, available as {@code #p0}, {@code #a0} or by name, with
+ * the target bean as the root object. The arguments are bound lazily to a
+ * context per call, the expression itself is parsed and compiled once.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+final class ExpressionKeyGenerator implements KeyGenerator {
+	private static final ParameterNameDiscoverer PARAMETER_NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
+
+	private final Expression expression;
+
+	private final BeanResolver beanResolver;
+
+	ExpressionKeyGenerator(Expression expression, BeanResolver beanResolver) {
+		this.expression = expression;
+		this.beanResolver = beanResolver;
+	}
+
+	@Override
+	public Object generate(Object target, Method method, Object... params) {
+		MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(target, method, params,
+				PARAMETER_NAME_DISCOVERER);
+		if (this.beanResolver != null)
+			context.setBeanResolver(this.beanResolver);
+		return this.expression.getValue(context);
+	}
+}
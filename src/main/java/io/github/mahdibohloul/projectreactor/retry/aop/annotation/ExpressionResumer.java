@@ -0,0 +1,75 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.annotation;
+
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.ReactiveResumer;
+import java.lang.reflect.Method;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.BeanResolver;
+import org.springframework.expression.Expression;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * {@link ReactiveResumer} replacing a single argument of the resumed method
+ * with the value of a SpEL expression, evaluated with the last emitted element
+ * as the root object and the arguments of the failed attempt available as
+ * {@code #p0}, {@code #a0} or by name. The expression is parsed and compiled
+ * once.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+final class ExpressionResumer implements ReactiveResumer {
+	private static final ParameterNameDiscoverer PARAMETER_NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
+
+	private final Method method;
+
+	private final int parameterIndex;
+
+	private final Class<?> parameterType;
+
+	private final Expression expression;
+
+	private final BeanResolver beanResolver;
+
+	ExpressionResumer(Method method, String parameter, Expression expression, BeanResolver beanResolver) {
+		this.method = method;
+		this.parameterIndex = parameterIndex(method, parameter);
+		this.parameterType = ClassUtils.resolvePrimitiveIfNecessary(method.getParameterTypes()[this.parameterIndex]);
+		this.expression = expression;
+		this.beanResolver = beanResolver;
+	}
+
+	@Override
+	public Object[] resume(Object[] arguments, Object lastElement) {
+		MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(lastElement, this.method, arguments,
+				PARAMETER_NAME_DISCOVERER);
+		if (this.beanResolver != null)
+			context.setBeanResolver(this.beanResolver);
+		Object[] resumed = arguments.clone();
+		resumed[this.parameterIndex] = this.expression.getValue(context, this.parameterType);
+		return resumed;
+	}
+
+	/**
+	 * Resolves the index of the given parameter, either an index, optionally
+	 * prefixed like the {@code #p0} and {@code #a0} variables, or a name.
+	 */
+	private static int parameterIndex(Method method, String parameter) {
+		String index = parameter.matches("[ap]\\d+") ? parameter.substring(1) : parameter;
+		if (index.matches("\\d+")) {
+			int parameterIndex = Integer.parseInt(index);
+			Assert.state(parameterIndex < method.getParameterCount(),
+					() -> "No parameter " + parameter + " in method " + method);
+			return parameterIndex;
+		}
+		String[] names = PARAMETER_NAME_DISCOVERER.getParameterNames(method);
+		if (names != null)
+			for (int i = 0; i < names.length; i++)
+				if (names[i].equals(parameter))
+					return i;
+		throw new IllegalStateException("No parameter named '" + parameter + "' in method " + method
+				+ ", use its index if the parameter names are not available");
+	}
+}
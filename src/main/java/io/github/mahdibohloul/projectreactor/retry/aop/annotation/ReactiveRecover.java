@@ -3,6 +3,33 @@ package io.github.mahdibohloul.projectreactor.retry.aop.annotation;
 import java.lang.annotation.*;
 import org.springframework.context.annotation.Import;
 
+/**
+ * Annotation for a method recovering the failed calls of the
+ * {@link ReactiveRetryable} methods of the same bean, once their retries are
+ * exhausted or with a failure that is not retried.
+ * <p>
+ * The recover method must return a type assignable to the return type of the
+ * retryable method, such as a {@code Mono} emitting a cached or default value,
+ * and take the same arguments, optionally preceded by the failure. The failure
+ * parameter narrows the failures recovered by the method: the recover method
+ * declaring the closest superclass of the failure is chosen. Failures that no
+ * recover method accepts are propagated.
+ *
+ * <pre class="code">
+ * &#064;ReactiveRetryable(include = IOException.class)
+ * public Mono&lt;Quote&gt; quote(String symbol) {
+ * 	// ...
+ * }
+ *
+ * &#064;ReactiveRecover
+ * Mono&lt;Quote&gt; cachedQuote(IOException failure, String symbol) {
+ * 	return Mono.justOrEmpty(cache.get(symbol));
+ * }
+ * </pre>
+ *
+ * @author Mahdi Bohloul
+ * @see ReactiveRetryable#recover()
+ */
 @Target({ElementType.METHOD, ElementType.TYPE})
 @Retention(RetentionPolicy.RUNTIME)
 @Import(ReactiveRetryConfiguration.class)
@@ -2,6 +2,7 @@ package io.github.mahdibohloul.projectreactor.retry.aop.annotation;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
@@ -11,6 +12,7 @@ import org.springframework.aop.ClassFilter;
 import org.springframework.aop.IntroductionAdvisor;
 import org.springframework.aop.MethodMatcher;
 import org.springframework.aop.Pointcut;
+import org.springframework.aop.framework.AopProxyUtils;
 import org.springframework.aop.support.AbstractPointcutAdvisor;
 import org.springframework.aop.support.ComposablePointcut;
 import org.springframework.aop.support.StaticMethodMatcherPointcut;
@@ -20,14 +22,17 @@ import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ListableBeanFactory;
 import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.SingletonBeanRegistry;
 import org.springframework.context.annotation.ImportAware;
 import org.springframework.context.annotation.Role;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.ReflectionUtils;
 
 /**
@@ -52,6 +57,10 @@ public class ReactiveRetryConfiguration extends AbstractPointcutAdvisor
 
 	private BeanFactory beanFactory;
 
+	private boolean eagerInit;
+
+	private String schedulerName;
+
 	@Override
 	public ClassFilter getClassFilter() {
 		return this.pointcut.getClassFilter();
@@ -88,10 +97,44 @@ public class ReactiveRetryConfiguration extends AbstractPointcutAdvisor
 		this.pointcut = buildPointcut(reactiveRetryableAnnotationTypes);
 		this.advice = buildAdvice();
 		((BeanFactoryAware) this.advice).setBeanFactory(this.beanFactory);
+		this.advice.setSchedulerName(this.schedulerName);
 	}
 
+	/**
+	 * Resolve the delegates of all singleton beans advised by this advisor, so the
+	 * first call to each {@link ReactiveRetryable @ReactiveRetryable} method hits
+	 * the delegate cache. With {@link EnableReactiveRetry#eagerInit()} enabled,
+	 * every bean definition matching the pointcut is resolved and an invalid
+	 * configuration fails the startup.
+	 */
 	@Override
 	public void afterSingletonsInstantiated() {
+		if (!(this.beanFactory instanceof ListableBeanFactory listableBeanFactory))
+			return;
+		if (!this.eagerInit) {
+			for (String beanName : listableBeanFactory.getBeanNamesForType(
+					io.github.mahdibohloul.projectreactor.retry.aop.interceptor.ReactiveRetryable.class, false,
+					false)) {
+				Object bean = listableBeanFactory.getBean(beanName);
+				this.advice.resolveDelegates(AopProxyUtils.ultimateTargetClass(bean), false);
+			}
+			return;
+		}
+		for (String beanName : listableBeanFactory.getBeanDefinitionNames()) {
+			Class<?> targetClass = resolveTargetClass(listableBeanFactory, beanName);
+			if (targetClass != null && getClassFilter().matches(targetClass))
+				this.advice.resolveDelegates(targetClass, true);
+		}
+	}
+
+	private Class<?> resolveTargetClass(ListableBeanFactory listableBeanFactory, String beanName) {
+		if (listableBeanFactory instanceof SingletonBeanRegistry singletonBeanRegistry
+				&& singletonBeanRegistry.containsSingleton(beanName))
+			return AopProxyUtils.ultimateTargetClass(singletonBeanRegistry.getSingleton(beanName));
+		Class<?> beanType = listableBeanFactory.getType(beanName, false);
+		if (beanType == null || Proxy.isProxyClass(beanType))
+			return null;
+		return ClassUtils.getUserClass(beanType);
 	}
 
 	private AnnotationAwareReactiveRetryOperationsInterceptor buildAdvice() {
@@ -119,6 +162,8 @@ public class ReactiveRetryConfiguration extends AbstractPointcutAdvisor
 					? (Integer) annotationAttributes.get("order")
 					: Ordered.LOWEST_PRECEDENCE;
 			setOrder(order);
+			this.eagerInit = Boolean.TRUE.equals(annotationAttributes.get("eagerInit"));
+			this.schedulerName = (String) annotationAttributes.get("scheduler");
 		}
 	}
 
@@ -1,5 +1,7 @@
 package io.github.mahdibohloul.projectreactor.retry.aop.annotation;
 
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.BackOffAlgorithm;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.ConcurrencyLimitAlgorithm;
 import java.lang.annotation.*;
 
 /**
@@ -62,6 +64,30 @@ public @interface ReactiveRetryable {
 	 */
 	Class<? extends Throwable>[] exclude() default {};
 
+	/**
+	 * A SpEL expression evaluated against each failure, as the root object, to
+	 * decide whether it should be retried, for instance
+	 * {@code "message.contains('temporarily')"}. The failures matching neither this
+	 * expression nor {@link #include()} are not retried. Placeholders are resolved
+	 * and the expression is parsed and compiled once. A failure the expression
+	 * cannot be evaluated against does not match.
+	 *
+	 * @return the expression matching the failures that should be retried
+	 * @since 2.0.0
+	 */
+	String includeExpression() default "";
+
+	/**
+	 * A SpEL expression evaluated against each failure, as the root object, to
+	 * decide whether it should not be retried. Placeholders are resolved and the
+	 * expression is parsed and compiled once. A failure the expression cannot be
+	 * evaluated against does not match.
+	 *
+	 * @return the expression matching the failures that should not be retried
+	 * @since 2.0.0
+	 */
+	String excludeExpression() default "";
+
 	/**
 	 * The maximum number of attempts that should be made.
 	 *
@@ -69,6 +95,16 @@ public @interface ReactiveRetryable {
 	 */
 	long maxAttempts() default 3;
 
+	/**
+	 * An expression evaluated once to the maximum number of attempts, overriding
+	 * {@link #maxAttempts()}, for instance {@code "${retry.attempts}"} or
+	 * {@code "#{@retrySettings.attempts}"}.
+	 *
+	 * @return the expression of the maximum number of attempts
+	 * @since 2.0.0
+	 */
+	String maxAttemptsExpression() default "";
+
 	/**
 	 * Whether exponential backoff should be used.
 	 *
@@ -76,6 +112,28 @@ public @interface ReactiveRetryable {
 	 */
 	boolean exponentialBackoff() default false;
 
+	/**
+	 * Whether the exponential backoff adapts to the observed behaviour of the
+	 * method: the base delay is the median latency of its successful attempts,
+	 * scaled up with its recent failure rate, instead of
+	 * {@link #backOffMinDelay()}. The delays stay within the minimum and maximum
+	 * delays. Only applies with {@link #exponentialBackoff()}.
+	 *
+	 * @return whether the backoff is adaptive
+	 * @since 2.0.0
+	 */
+	boolean adaptiveBackoff() default false;
+
+	/**
+	 * The algorithm of the delays of the exponential backoff, for instance
+	 * {@link BackOffAlgorithm#DECORRELATED_JITTER} to spread the retries of clients
+	 * failing at the same time. Only applies with {@link #exponentialBackoff()}.
+	 *
+	 * @return the backoff algorithm
+	 * @since 2.0.0
+	 */
+	BackOffAlgorithm backOffAlgorithm() default BackOffAlgorithm.EXPONENTIAL;
+
 	/**
 	 * Whether the maximum number of attempts in a row should be checked.
 	 *
@@ -91,12 +149,31 @@ public @interface ReactiveRetryable {
 	long backOffFixDelay() default -1;
 
 	/**
-	 * The maximum delay that should be used for exponential backoff.
+	 * An expression evaluated once to the fixed delay, overriding
+	 * {@link #backOffFixDelay()}.
+	 *
+	 * @return the expression of the fixed delay
+	 * @since 2.0.0
+	 */
+	String backOffFixDelayExpression() default "";
+
+	/**
+	 * The maximum delay that should be used for exponential backoff. Also bounds
+	 * the delays suggested by the {@link #retryDelayHint()} of every strategy.
 	 *
 	 * @return The maximum delay that should be used for exponential backoff.
 	 */
 	long backOffMaxDelay() default -1;
 
+	/**
+	 * An expression evaluated once to the maximum delay, overriding
+	 * {@link #backOffMaxDelay()}.
+	 *
+	 * @return the expression of the maximum delay
+	 * @since 2.0.0
+	 */
+	String backOffMaxDelayExpression() default "";
+
 	/**
 	 * The minimum delay that should be used for exponential backoff.
 	 *
@@ -104,6 +181,15 @@ public @interface ReactiveRetryable {
 	 */
 	long backOffMinDelay() default -1;
 
+	/**
+	 * An expression evaluated once to the minimum delay, overriding
+	 * {@link #backOffMinDelay()}.
+	 *
+	 * @return the expression of the minimum delay
+	 * @since 2.0.0
+	 */
+	String backOffMinDelayExpression() default "";
+
 	/**
 	 * The factor that should be used for exponential backoff.
 	 *
@@ -111,6 +197,15 @@ public @interface ReactiveRetryable {
 	 */
 	double backOffFactor() default -1.0;
 
+	/**
+	 * An expression evaluated once to the backoff factor, overriding
+	 * {@link #backOffFactor()}.
+	 *
+	 * @return the expression of the backoff factor
+	 * @since 2.0.0
+	 */
+	String backOffFactorExpression() default "";
+
 	/**
 	 * Retry interceptor bean name to be applied for retryable method. Is mutually
 	 * exclusive with other attributes.
@@ -118,4 +213,335 @@ public @interface ReactiveRetryable {
 	 * @return the retry interceptor bean name
 	 */
 	String interceptor() default "";
+
+	/**
+	 * Name of a policy of the
+	 * {@link io.github.mahdibohloul.projectreactor.retry.aop.interceptor.ReactiveRetryPolicyRegistry
+	 * ReactiveRetryPolicyRegistry} bean of the context. The maximum attempts and
+	 * the delays of the retries are read from the policy on each call, so that
+	 * replacing the policy applies to the calls that start afterwards, and the
+	 * attributes of the retry strategy are ignored.
+	 *
+	 * @return the retry policy name
+	 * @since 2.0.0
+	 */
+	String policy() default "";
+
+	/**
+	 * Bean names of the
+	 * {@link io.github.mahdibohloul.projectreactor.retry.aop.interceptor.ReactiveRetryListener
+	 * ReactiveRetryListener}s notified of the retries of this method. If empty, all
+	 * listener beans of the context are used, or a rate-limited
+	 * {@link io.github.mahdibohloul.projectreactor.retry.aop.interceptor.LoggingReactiveRetryListener
+	 * LoggingReactiveRetryListener} if there is none. A single empty name disables
+	 * the listeners, including the default one.
+	 *
+	 * @return the retry listener bean names
+	 * @since 2.0.0
+	 */
+	String[] listeners() default {};
+
+	/**
+	 * Bean name of the
+	 * {@link io.github.mahdibohloul.projectreactor.retry.aop.interceptor.RetryBudget
+	 * RetryBudget} consulted before each retry of this method. Methods that name
+	 * the same singleton bean share its budget, a prototype bean gives each method
+	 * its own budget. If empty, the primary or only budget bean of the context is
+	 * used, and the retries are unlimited if there is none.
+	 *
+	 * @return the retry budget bean name
+	 * @since 2.0.0
+	 */
+	String retryBudget() default "";
+
+	/**
+	 * Bean name of the
+	 * {@link io.github.mahdibohloul.projectreactor.retry.aop.interceptor.RetryDelayHint
+	 * RetryDelayHint} extracting the delays suggested by the failures of this
+	 * method, such as the {@code Retry-After} header of a throttled response. A
+	 * suggested delay replaces the delay of the retry strategy, bounded by
+	 * {@link #backOffMaxDelay()} whatever the strategy. If empty, the only delay
+	 * hint bean of the context is used, if any.
+	 *
+	 * @return the retry delay hint bean name
+	 * @since 2.0.0
+	 */
+	String retryDelayHint() default "";
+
+	/**
+	 * Whether a circuit breaker should guard this method. While the breaker is
+	 * open, calls fail fast with a
+	 * {@link io.github.mahdibohloul.projectreactor.retry.aop.interceptor.CircuitBreakerOpenException
+	 * CircuitBreakerOpenException} without subscribing to the method and failures
+	 * are not retried.
+	 *
+	 * @return whether the circuit breaker is enabled
+	 * @since 2.0.0
+	 */
+	boolean circuitBreaker() default false;
+
+	/**
+	 * The failure rate of the attempts, between 0 exclusive and 1 inclusive, at
+	 * which the circuit breaker opens.
+	 *
+	 * @return the failure rate threshold
+	 * @since 2.0.0
+	 */
+	double circuitBreakerFailureRate() default 0.5;
+
+	/**
+	 * The number of attempts the failure rate of the circuit breaker is computed
+	 * on. The breaker does not open before this many attempts are recorded.
+	 *
+	 * @return the sliding window size
+	 * @since 2.0.0
+	 */
+	int circuitBreakerWindowSize() default 100;
+
+	/**
+	 * How long, in milliseconds, the circuit breaker stays open before probing the
+	 * method again.
+	 *
+	 * @return the open duration in milliseconds
+	 * @since 2.0.0
+	 */
+	long circuitBreakerOpenDuration() default 60000;
+
+	/**
+	 * The number of probe attempts permitted while the circuit breaker is
+	 * half-open. The breaker closes when all of them succeed.
+	 *
+	 * @return the number of half-open probes
+	 * @since 2.0.0
+	 */
+	int circuitBreakerHalfOpenProbes() default 10;
+
+	/**
+	 * The maximum number of concurrent calls of this method, including their
+	 * retries and backoff delays. Excess calls wait up to
+	 * {@link #maxConcurrentCallsWait()} for a call to terminate, then fail with a
+	 * {@link io.github.mahdibohloul.projectreactor.retry.aop.interceptor.BulkheadFullException
+	 * BulkheadFullException}. 0 disables the limit.
+	 * <p>
+	 * With a {@link #concurrencyLimit()}, it is instead the upper bound of the
+	 * adaptive limit of the concurrent attempts.
+	 *
+	 * @return the maximum number of concurrent calls
+	 * @since 2.0.0
+	 */
+	int maxConcurrentCalls() default 0;
+
+	/**
+	 * How long, in milliseconds, a call exceeding {@link #maxConcurrentCalls()}
+	 * waits for a permit. 0 fails the call immediately.
+	 *
+	 * @return the maximum wait in milliseconds
+	 * @since 2.0.0
+	 */
+	long maxConcurrentCallsWait() default 0;
+
+	/**
+	 * The maximum number of concurrent calls of this method that are retrying, from
+	 * their first retry until they terminate. A retry exceeding the limit fails the
+	 * call with a
+	 * {@link io.github.mahdibohloul.projectreactor.retry.aop.interceptor.BulkheadFullException
+	 * BulkheadFullException} caused by the failure of the previous attempt. 0
+	 * disables the limit.
+	 *
+	 * @return the maximum number of concurrent retrying calls
+	 * @since 2.0.0
+	 */
+	int maxConcurrentRetries() default 0;
+
+	/**
+	 * The algorithm adapting the maximum number of concurrent attempts of this
+	 * method, retries and hedges included, to the latency and the failures of its
+	 * attempts. The limit starts at 20, or {@link #maxConcurrentCalls()} if lower,
+	 * and stays between 1 and {@link #maxConcurrentCalls()}, 1000 if unset. An
+	 * attempt beyond the limit waits up to {@link #maxConcurrentCallsWait()} for a
+	 * permit, then fails the call with a
+	 * {@link io.github.mahdibohloul.projectreactor.retry.aop.interceptor.BulkheadFullException
+	 * BulkheadFullException}.
+	 *
+	 * @return the concurrency limit algorithm
+	 * @since 2.0.0
+	 */
+	ConcurrencyLimitAlgorithm concurrencyLimit() default ConcurrencyLimitAlgorithm.NONE;
+
+	/**
+	 * Whether this method blocks before it returns. Each attempt is then invoked on
+	 * a virtual thread, so that the blocking call never blocks the event loop nor a
+	 * timer thread. Methods that do not return a reactive type, which are otherwise
+	 * invoked without retry, are then retried with the same configuration, and
+	 * their caller waits for the retried call. A blocking method must not be called
+	 * from a non-blocking thread of Reactor.
+	 *
+	 * @return whether the method blocks
+	 * @since 2.0.0
+	 */
+	boolean blocking() default false;
+
+	/**
+	 * Whether the invocations of this method should be hedged instead of retried
+	 * after a failure. If an attempt has not emitted within the hedge delay,
+	 * another attempt is started in parallel and the first value wins. Only applies
+	 * to idempotent methods returning {@code Mono}, other methods are retried up to
+	 * {@link #maxAttempts()} times.
+	 *
+	 * @return whether hedging is enabled
+	 * @since 2.0.0
+	 */
+	boolean hedging() default false;
+
+	/**
+	 * The delay, in milliseconds, after which an attempt is hedged. Used until
+	 * enough latencies are observed if {@link #hedgeDelayPercentile()} is set.
+	 *
+	 * @return the hedge delay in milliseconds
+	 * @since 2.0.0
+	 */
+	long hedgeDelay() default -1;
+
+	/**
+	 * The percentile of the observed latency of the successful attempts used as the
+	 * hedge delay, for instance {@code 95}.
+	 *
+	 * @return the hedge delay percentile
+	 * @since 2.0.0
+	 */
+	double hedgeDelayPercentile() default -1.0;
+
+	/**
+	 * The maximum number of attempts started in addition to the first one.
+	 *
+	 * @return the maximum number of hedges
+	 * @since 2.0.0
+	 */
+	int maxHedges() default 1;
+
+	/**
+	 * The timeout, in milliseconds, of each attempt. An attempt that does not
+	 * terminate in time fails with a {@link java.util.concurrent.TimeoutException
+	 * TimeoutException} that is retried like any other failure. For {@code Flux}
+	 * methods, the timeout applies to the first element and to the interval between
+	 * two elements.
+	 *
+	 * @return the attempt timeout in milliseconds
+	 * @since 2.0.0
+	 */
+	long attemptTimeout() default -1;
+
+	/**
+	 * The deadline, in milliseconds, of the whole call including all retries and
+	 * backoff delays.
+	 *
+	 * @return the overall timeout in milliseconds
+	 * @since 2.0.0
+	 */
+	long overallTimeout() default -1;
+
+	/**
+	 * The number of causes of a failure that are matched against {@link #include()}
+	 * and {@link #exclude()} when the failure itself does not match, for instance
+	 * to retry an {@code IOException} wrapped in an
+	 * {@link java.io.UncheckedIOException UncheckedIOException}.
+	 *
+	 * @return the number of causes to classify
+	 * @since 2.0.0
+	 */
+	int causeDepth() default 0;
+
+	/**
+	 * The name of the {@link ReactiveRecover} method of the bean that recovers the
+	 * failed calls. By default, the recover method is chosen among all the recover
+	 * methods matching the return type and the arguments of this method.
+	 *
+	 * @return the name of the recover method
+	 * @since 2.0.0
+	 */
+	String recover() default "";
+
+	/**
+	 * Whether to emit the last successful value of the method for the same
+	 * arguments, instead of the failure, when the retries of a call are exhausted
+	 * or rejected. Only applies to methods returning a single value, such as
+	 * {@code Mono}.
+	 *
+	 * @return whether to fall back to the last successful value
+	 * @since 2.0.0
+	 */
+	boolean fallbackToLastSuccess() default false;
+
+	/**
+	 * How long, in milliseconds, a successful value is served as a fallback.
+	 *
+	 * @return the time to live of the fallback values in milliseconds
+	 * @since 2.0.0
+	 */
+	long fallbackTimeToLive() default 300000;
+
+	/**
+	 * The maximum number of fallback values, one per distinct arguments, kept for
+	 * the method.
+	 *
+	 * @return the maximum number of fallback values
+	 * @since 2.0.0
+	 */
+	int fallbackMaximumSize() default 1000;
+
+	/**
+	 * Whether the fallback values are weakly referenced, so that they do not
+	 * prevent their garbage collection.
+	 *
+	 * @return whether the fallback values are weakly referenced
+	 * @since 2.0.0
+	 */
+	boolean fallbackWeakValues() default false;
+
+	/**
+	 * Whether concurrent calls with the same key share a single retrying
+	 * subscription: while a call is in flight, the calls with the same key receive
+	 * its result instead of invoking the method, so that a failing dependency is
+	 * not retried once per caller. Only applies to methods returning a single
+	 * value, such as {@code Mono}.
+	 *
+	 * @return whether to coalesce the concurrent calls
+	 * @since 2.0.0
+	 */
+	boolean coalesce() default false;
+
+	/**
+	 * A SpEL expression computing the key of the coalesced calls from the
+	 * arguments, available as {@code #p0}, {@code #a0} or by name. By default, the
+	 * calls with equal arguments are coalesced.
+	 *
+	 * @return the expression of the coalescing key
+	 * @since 2.0.0
+	 */
+	String coalesceKey() default "";
+
+	/**
+	 * A SpEL expression computing the value of the {@link #resumeParameter()
+	 * resumed parameter} of the next attempt, once an attempt of a {@code Flux}
+	 * method failed after emitting elements, so that the retried stream resumes
+	 * after the last element instead of starting over. The last element is the root
+	 * object of the expression, and the arguments of the failed attempt are
+	 * available as {@code #p0}, {@code #a0} or by name, for instance
+	 * {@code "offset + 1"} or {@code "#p0 + 1"}. By default, the whole stream is
+	 * resubscribed.
+	 *
+	 * @return the expression of the resumed parameter
+	 * @since 2.0.0
+	 */
+	String resumeFrom() default "";
+
+	/**
+	 * The parameter replaced by the value of {@link #resumeFrom()}, by index, such
+	 * as {@code "0"} or {@code "p0"}, or by name if the parameter names are
+	 * available, for instance with the {@code -parameters} compiler flag.
+	 *
+	 * @return the resumed parameter
+	 * @since 2.0.0
+	 */
+	String resumeParameter() default "";
 }
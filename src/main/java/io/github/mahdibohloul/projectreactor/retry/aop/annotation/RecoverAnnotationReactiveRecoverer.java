@@ -0,0 +1,163 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.annotation;
+
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.ReactiveRecoverer;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Recovers the failed calls of a {@link ReactiveRetryable} method with the
+ * {@link ReactiveRecover} methods of the same bean.
+ * <p>
+ * A recover method matches if its return type is assignable to the return type
+ * of the retryable method and it takes the same arguments, optionally preceded
+ * by the failure. The candidates are resolved once per retryable method and
+ * invoked through {@link MethodHandle}s, and the candidate for each failure
+ * class, the one declaring the closest superclass of the failure, is cached.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+final class RecoverAnnotationReactiveRecoverer implements ReactiveRecoverer {
+	private static final Candidate NO_CANDIDATE = new Candidate(null, null);
+
+	private final List<Candidate> candidates;
+
+	private final ClassValue<Candidate> candidatesByFailure = new ClassValue<>() {
+		@Override
+		protected Candidate computeValue(Class<?> failureType) {
+			return findCandidate(failureType);
+		}
+	};
+
+	private RecoverAnnotationReactiveRecoverer(List<Candidate> candidates) {
+		this.candidates = candidates;
+	}
+
+	/**
+	 * Resolves the recover methods of the given retryable method.
+	 *
+	 * @param targetClass
+	 *            the class of the advised bean
+	 * @param method
+	 *            the retryable method
+	 * @param name
+	 *            the name of the recover method, or an empty string to consider all
+	 *            recover methods
+	 * @return the recoverer, or {@code null} if no recover method matches
+	 * @throws IllegalStateException
+	 *             if a name is given and no recover method of that name matches
+	 */
+	static ReactiveRecoverer of(Class<?> targetClass, Method method, String name) {
+		List<Candidate> candidates = new ArrayList<>();
+		for (Method candidate : ReflectionUtils.getUniqueDeclaredMethods(targetClass,
+				candidate -> AnnotatedElementUtils.hasAnnotation(candidate, ReactiveRecover.class))) {
+			if (Modifier.isStatic(candidate.getModifiers())
+					|| (StringUtils.hasText(name) && !name.equals(candidate.getName()))
+					|| !method.getReturnType().isAssignableFrom(candidate.getReturnType()))
+				continue;
+			Class<?>[] parameterTypes = candidate.getParameterTypes();
+			Class<?>[] argumentTypes = method.getParameterTypes();
+			if (parameterTypes.length == argumentTypes.length + 1 && Throwable.class.isAssignableFrom(parameterTypes[0])
+					&& accepts(parameterTypes, 1, argumentTypes))
+				candidates.add(new Candidate(parameterTypes[0], handle(candidate)));
+			else if (parameterTypes.length == argumentTypes.length && accepts(parameterTypes, 0, argumentTypes))
+				candidates.add(new Candidate(null, handle(candidate)));
+		}
+		if (candidates.isEmpty()) {
+			if (StringUtils.hasText(name))
+				throw new IllegalStateException("No @ReactiveRecover method named '" + name + "' matches "
+						+ ClassUtils.getQualifiedMethodName(method, targetClass));
+			return null;
+		}
+		return new RecoverAnnotationReactiveRecoverer(candidates);
+	}
+
+	@Override
+	public Object recover(MethodInvocation invocation, Throwable failure) throws Throwable {
+		Candidate candidate = this.candidatesByFailure.get(failure.getClass());
+		if (candidate == NO_CANDIDATE)
+			throw failure;
+		Object[] arguments = invocation.getArguments();
+		if (candidate.failureType != null) {
+			Object[] recoverArguments = new Object[arguments.length + 1];
+			recoverArguments[0] = failure;
+			System.arraycopy(arguments, 0, recoverArguments, 1, arguments.length);
+			arguments = recoverArguments;
+		}
+		return (Object) candidate.handle.invokeExact(invocation.getThis(), arguments);
+	}
+
+	private Candidate findCandidate(Class<?> failureType) {
+		Candidate closest = NO_CANDIDATE;
+		int closestDistance = Integer.MAX_VALUE;
+		for (Candidate candidate : this.candidates) {
+			int distance = distance(failureType,
+					candidate.failureType != null ? candidate.failureType : Throwable.class);
+			if (distance < closestDistance) {
+				closest = candidate;
+				closestDistance = distance;
+			}
+		}
+		return closest;
+	}
+
+	/**
+	 * @return the number of superclasses between the failure type and the given
+	 *         type, or {@link Integer#MAX_VALUE} if the failure is not an instance
+	 *         of the type
+	 */
+	private static int distance(Class<?> failureType, Class<?> type) {
+		int distance = 0;
+		for (Class<?> current = failureType; current != null; current = current.getSuperclass()) {
+			if (current == type)
+				return distance;
+			distance++;
+		}
+		return Integer.MAX_VALUE;
+	}
+
+	private static boolean accepts(Class<?>[] parameterTypes, int offset, Class<?>[] argumentTypes) {
+		for (int i = 0; i < argumentTypes.length; i++) {
+			if (!ClassUtils.isAssignable(parameterTypes[i + offset], argumentTypes[i]))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @return a handle of type {@code (Object, Object[])Object} invoking the given
+	 *         method on its first argument with the spread array
+	 */
+	private static MethodHandle handle(Method method) {
+		ReflectionUtils.makeAccessible(method);
+		try {
+			int parameterCount = method.getParameterCount();
+			return MethodHandles.lookup().unreflect(method)
+					.asType(MethodType.genericMethodType(parameterCount + 1))
+					.asSpreader(Object[].class, parameterCount);
+		} catch (IllegalAccessException ex) {
+			throw new IllegalStateException("Cannot access @ReactiveRecover method " + method, ex);
+		}
+	}
+
+	private static final class Candidate {
+		private final Class<?> failureType;
+
+		private final MethodHandle handle;
+
+		private Candidate(Class<?> failureType, MethodHandle handle) {
+			this.failureType = failureType;
+			this.handle = handle;
+		}
+	}
+}
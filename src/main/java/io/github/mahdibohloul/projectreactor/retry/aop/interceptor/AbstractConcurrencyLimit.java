@@ -0,0 +1,63 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+import org.springframework.util.Assert;
+
+/**
+ * Base class of the {@link ConcurrencyLimit} implementations. The limit is a
+ * fractional value, so that small increments accumulate, held in a single
+ * {@link AtomicLong} and updated with compare-and-set within the minimum and
+ * maximum limits.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+abstract class AbstractConcurrencyLimit implements ConcurrencyLimit {
+	private final int minLimit;
+
+	private final int maxLimit;
+
+	private final AtomicLong limit;
+
+	AbstractConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+		Assert.isTrue(minLimit > 0, "minLimit must be greater than 0");
+		Assert.isTrue(maxLimit >= minLimit, "maxLimit must be greater than or equal to minLimit");
+		Assert.isTrue(initialLimit >= minLimit && initialLimit <= maxLimit,
+				"initialLimit must be between minLimit and maxLimit");
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.limit = new AtomicLong(Double.doubleToLongBits(initialLimit));
+	}
+
+	@Override
+	public int getLimit() {
+		return (int) limit();
+	}
+
+	public int getMinLimit() {
+		return this.minLimit;
+	}
+
+	public int getMaxLimit() {
+		return this.maxLimit;
+	}
+
+	double limit() {
+		return Double.longBitsToDouble(this.limit.get());
+	}
+
+	/**
+	 * Applies the given function to the limit, retrying if the limit changes
+	 * concurrently, and bounds the result by the minimum and maximum limits.
+	 */
+	void update(DoubleUnaryOperator function) {
+		while (true) {
+			long bits = this.limit.get();
+			double next = function.applyAsDouble(Double.longBitsToDouble(bits));
+			next = Math.max(this.minLimit, Math.min(this.maxLimit, next));
+			if (this.limit.compareAndSet(bits, Double.doubleToLongBits(next)))
+				return;
+		}
+	}
+}
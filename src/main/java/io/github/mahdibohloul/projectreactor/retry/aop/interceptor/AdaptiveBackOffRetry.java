@@ -0,0 +1,66 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import java.util.concurrent.ThreadLocalRandom;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Exponential backoff whose base delay is the median latency of the successful
+ * attempts of the method, scaled up with its recent failure rate.
+ * <p>
+ * The n-th retry of a call waits {@code median * 2^(n - 1) / (1 - failureRate)}
+ * with a random jitter, so a healthy dependency is retried after about one
+ * median latency and a failing one is backed off up to twenty times harder.
+ * Until enough attempts succeeded, the initial delay replaces the median.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+final class AdaptiveBackOffRetry extends BackOffRetry<Void> {
+	private static final double MAX_FAILURE_RATE = 0.95;
+
+	private final AttemptStatistics statistics;
+
+	private final long initialDelayNanos;
+
+	private final double jitter;
+
+	/**
+	 * @param maxAttempts
+	 *            the maximum number of retries
+	 * @param initialDelayNanos
+	 *            the base delay until the median latency is known
+	 * @param minDelayNanos
+	 *            the minimum delay
+	 * @param maxDelayNanos
+	 *            the maximum delay
+	 * @param jitter
+	 *            the jitter factor, between 0 and 1
+	 * @param statistics
+	 *            the statistics of the attempts of the method
+	 * @param scheduler
+	 *            the scheduler of the delays
+	 */
+	AdaptiveBackOffRetry(long maxAttempts, long initialDelayNanos, long minDelayNanos, long maxDelayNanos,
+			double jitter, AttemptStatistics statistics, Scheduler scheduler) {
+		super(maxAttempts, minDelayNanos, maxDelayNanos, scheduler);
+		this.initialDelayNanos = initialDelayNanos;
+		this.jitter = jitter;
+		this.statistics = statistics;
+	}
+
+	@Override
+	Void newState() {
+		return null;
+	}
+
+	@Override
+	long delayNanos(Void state, RetrySignal signal) {
+		long medianLatencyNanos = this.statistics.getMedianLatencyNanos();
+		double delay = (medianLatencyNanos > 0 ? medianLatencyNanos : this.initialDelayNanos)
+				* Math.pow(2, Math.min(signal.totalRetries(), 62))
+				/ (1 - Math.min(this.statistics.getFailureRate(), MAX_FAILURE_RATE));
+		if (this.jitter > 0)
+			delay *= 1 + this.jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+		return (long) delay;
+	}
+}
@@ -0,0 +1,58 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@link ConcurrencyLimit} with additive increase and multiplicative decrease,
+ * as in the congestion control of TCP: the limit grows by one after each
+ * successful attempt and is multiplied by the backoff ratio after each failed
+ * one.
+ * <p>
+ * The limit only grows while at least half of it is in use, so that a lightly
+ * loaded method does not accumulate a limit it never proved it could sustain.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+public class AimdConcurrencyLimit extends AbstractConcurrencyLimit {
+	private final double backoffRatio;
+
+	/**
+	 * Create a new limit with a minimum of 1 and a backoff ratio of 0.9.
+	 *
+	 * @param initialLimit
+	 *            the limit before the first sample
+	 * @param maxLimit
+	 *            the maximum limit
+	 */
+	public AimdConcurrencyLimit(int initialLimit, int maxLimit) {
+		this(initialLimit, 1, maxLimit, 0.9);
+	}
+
+	/**
+	 * Create a new limit.
+	 *
+	 * @param initialLimit
+	 *            the limit before the first sample
+	 * @param minLimit
+	 *            the minimum limit
+	 * @param maxLimit
+	 *            the maximum limit
+	 * @param backoffRatio
+	 *            the factor applied to the limit after a failed attempt, between
+	 *            0.5 and 1 excluded
+	 */
+	public AimdConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio) {
+		super(initialLimit, minLimit, maxLimit);
+		Assert.isTrue(backoffRatio >= 0.5 && backoffRatio < 1, "backoffRatio must be between 0.5 and 1");
+		this.backoffRatio = backoffRatio;
+	}
+
+	@Override
+	public void onSample(long rttNanos, int inFlight, boolean dropped) {
+		if (dropped)
+			update(limit -> limit * this.backoffRatio);
+		else if (inFlight * 2 >= limit())
+			update(limit -> limit + 1);
+	}
+}
@@ -0,0 +1,109 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import java.util.concurrent.ThreadLocalRandom;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Backoff computing its delays with one of the {@link BackOffAlgorithm}s, most
+ * of which the specs of Reactor do not provide. The decorrelated jitter and
+ * Fibonacci algorithms keep the previous delays of the call in a state created
+ * per call, the other algorithms are stateless.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+final class AlgorithmBackOffRetry extends BackOffRetry<AlgorithmBackOffRetry.State> {
+	private final BackOffAlgorithm algorithm;
+
+	private final long baseDelayNanos;
+
+	private final double jitter;
+
+	/**
+	 * @param algorithm
+	 *            the algorithm of the delays
+	 * @param maxAttempts
+	 *            the maximum number of retries
+	 * @param baseDelayNanos
+	 *            the base delay, greater than 0
+	 * @param maxDelayNanos
+	 *            the maximum delay
+	 * @param jitter
+	 *            the jitter factor of the exponential and Fibonacci algorithms,
+	 *            between 0 and 1
+	 * @param scheduler
+	 *            the scheduler of the delays
+	 */
+	AlgorithmBackOffRetry(BackOffAlgorithm algorithm, long maxAttempts, long baseDelayNanos, long maxDelayNanos,
+			double jitter, Scheduler scheduler) {
+		// Like the backoff spec of Reactor, the jitter of the exponential backoff does
+		// not go below the base delay
+		super(maxAttempts, algorithm == BackOffAlgorithm.EXPONENTIAL ? baseDelayNanos : 0, maxDelayNanos, scheduler);
+		this.algorithm = algorithm;
+		this.baseDelayNanos = baseDelayNanos;
+		this.jitter = jitter;
+	}
+
+	@Override
+	State newState() {
+		return this.algorithm == BackOffAlgorithm.DECORRELATED_JITTER || this.algorithm == BackOffAlgorithm.FIBONACCI
+				? new State(this.baseDelayNanos)
+				: null;
+	}
+
+	@Override
+	long delayNanos(State state, RetrySignal signal) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		return switch (this.algorithm) {
+			case EXPONENTIAL -> jitter(exponentialNanos(signal.totalRetries()), random);
+			case FULL_JITTER -> (long) (random.nextDouble() * exponentialNanos(signal.totalRetries()));
+			case EQUAL_JITTER -> {
+				double half = exponentialNanos(signal.totalRetries()) / 2;
+				yield (long) (half + random.nextDouble() * half);
+			}
+			case DECORRELATED_JITTER -> {
+				double upper = Math.min(3.0 * state.previousNanos, getMaxDelayNanos());
+				state.previousNanos = (long) (this.baseDelayNanos
+						+ random.nextDouble() * Math.max(upper - this.baseDelayNanos, 0));
+				yield state.previousNanos;
+			}
+			case FIBONACCI -> {
+				long delay = state.fibonacciCurrent;
+				if (delay < getMaxDelayNanos()) {
+					long next = state.fibonacciPrevious + state.fibonacciCurrent;
+					state.fibonacciPrevious = state.fibonacciCurrent;
+					state.fibonacciCurrent = next < 0 ? Long.MAX_VALUE : next;
+				}
+				yield jitter(delay, random);
+			}
+		};
+	}
+
+	private long jitter(double delayNanos, ThreadLocalRandom random) {
+		if (this.jitter > 0)
+			delayNanos *= 1 + this.jitter * (2 * random.nextDouble() - 1);
+		return (long) delayNanos;
+	}
+
+	private double exponentialNanos(long retries) {
+		return Math.min(this.baseDelayNanos * Math.pow(2, Math.min(retries, 62)), getMaxDelayNanos());
+	}
+
+	/**
+	 * The previous delays of a call. The retries of a call are sequential, so the
+	 * state does not need to be volatile.
+	 */
+	static final class State {
+		private long previousNanos;
+
+		private long fibonacciPrevious;
+
+		private long fibonacciCurrent;
+
+		private State(long baseDelayNanos) {
+			this.previousNanos = baseDelayNanos;
+			this.fibonacciPrevious = 0;
+			this.fibonacciCurrent = baseDelayNanos;
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Lock-free statistics of the attempts of an interceptor: the median latency of
+ * the successful attempts and an exponentially weighted moving average of the
+ * failure rate, each attempt weighing {@code 1/16}. Only the errors accepted by
+ * the error filter count as failures, the other errors are ignored.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+final class AttemptStatistics {
+	private static final int FAILURE_RATE_SCALE = 1 << 16;
+
+	private static final int FAILURE_RATE_SHIFT = 4;
+
+	private final Predicate<Throwable> recordFailure;
+
+	private final LatencyPercentile medianLatency = new LatencyPercentile(50);
+
+	private final AtomicInteger failureRate = new AtomicInteger();
+
+	/**
+	 * @param recordFailure
+	 *            whether an error counts as a failure
+	 */
+	AttemptStatistics(Predicate<Throwable> recordFailure) {
+		this.recordFailure = recordFailure;
+	}
+
+	void recordSuccess(long latencyNanos) {
+		this.medianLatency.record(latencyNanos);
+		this.failureRate.updateAndGet(rate -> rate - (rate >> FAILURE_RATE_SHIFT));
+	}
+
+	void recordError(Throwable error) {
+		if (this.recordFailure.test(error))
+			this.failureRate.updateAndGet(rate -> rate + ((FAILURE_RATE_SCALE - rate) >> FAILURE_RATE_SHIFT));
+	}
+
+	/**
+	 * @return the median latency of the successful attempts in nanoseconds, or
+	 *         {@code -1} until enough attempts succeeded
+	 */
+	long getMedianLatencyNanos() {
+		return this.medianLatency.getNanos();
+	}
+
+	/**
+	 * @return the recent failure rate, between 0 and 1
+	 */
+	double getFailureRate() {
+		return this.failureRate.get() / (double) FAILURE_RATE_SCALE;
+	}
+}
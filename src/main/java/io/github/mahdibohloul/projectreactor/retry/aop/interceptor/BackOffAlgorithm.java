@@ -0,0 +1,43 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+/**
+ * The algorithms computing the delays of an exponential backoff. {@code base}
+ * is the minimum delay, {@code cap} the maximum delay and {@code n} the number
+ * of retries of the call so far.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+public enum BackOffAlgorithm {
+	/**
+	 * {@code min(cap, base * 2^n)}, with a random jitter of the backoff factor.
+	 */
+	EXPONENTIAL,
+
+	/**
+	 * A random delay between 0 and {@code min(cap, base * 2^n)}. Spreads the
+	 * retries of synchronized clients the most, at the price of some retries
+	 * without delay.
+	 */
+	FULL_JITTER,
+
+	/**
+	 * Half of {@code min(cap, base * 2^n)} plus a random delay up to the other
+	 * half, so each retry waits at least half of the exponential delay.
+	 */
+	EQUAL_JITTER,
+
+	/**
+	 * A random delay between {@code base} and three times the previous delay of the
+	 * call, bounded by {@code cap}. The delays of a call are decorrelated from the
+	 * number of retries, which reduces the collisions of clients failing at the
+	 * same time.
+	 */
+	DECORRELATED_JITTER,
+
+	/**
+	 * {@code min(cap, base * fib(n + 1))}, with a random jitter of the backoff
+	 * factor. Grows more slowly than the exponential backoff.
+	 */
+	FIBONACCI
+}
@@ -1,5 +1,6 @@
 package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
 
+import reactor.util.retry.Retry;
 import reactor.util.retry.RetryBackoffSpec;
 
 /**
@@ -13,4 +14,8 @@ public class BackOffReactiveRetryInterceptor extends ReactiveRetryInterceptor {
 	public BackOffReactiveRetryInterceptor(RetryBackoffSpec retryBackoffSpec) {
 		super(retryBackoffSpec);
 	}
+
+	BackOffReactiveRetryInterceptor(Retry retryPolicy) {
+		super(retryPolicy);
+	}
 }
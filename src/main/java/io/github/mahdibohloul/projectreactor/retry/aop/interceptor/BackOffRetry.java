@@ -0,0 +1,163 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.retry.Retry;
+
+/**
+ * Base class of the backoff strategies computing the delay of each retry from
+ * the failure and a state of the call, which the specs of Reactor cannot
+ * express.
+ * <p>
+ * A state is created for each subscription to the retried call, so that
+ * consecutive retries of a call can depend on each other. The delays are
+ * computed in nanoseconds, bounded by the minimum and maximum delays, and
+ * scheduled directly on the scheduler. A delay suggested by the
+ * {@link RetryDelayHint} replaces the computed delay, bounded by the maximum
+ * delay and the maximum hinted delay only. The error filter, the hooks and the
+ * exhaustion handling are those of the builder, in the same order as in the
+ * specs of Reactor: the hook before the retry runs before the delay.
+ *
+ * @param <S>
+ *            the type of the state of a call
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+abstract class BackOffRetry<S> extends Retry {
+	private static final Mono<Long> NO_DELAY = Mono.just(0L);
+
+	private final long maxAttempts;
+
+	private final long minDelayNanos;
+
+	private final long maxDelayNanos;
+
+	private final Scheduler scheduler;
+
+	private Predicate<Throwable> filter = failure -> true;
+
+	private Function<RetrySignal, Mono<Void>> beforeRetry = signal -> Mono.empty();
+
+	private Consumer<RetrySignal> afterRetry = signal -> {
+	};
+
+	private BiFunction<Retry, RetrySignal, Throwable> retryExhausted = (retry, signal) -> signal.failure();
+
+	private RetryDelayHint retryDelayHint;
+
+	private long maxHintedDelayNanos = Long.MAX_VALUE;
+
+	/**
+	 * @param maxAttempts
+	 *            the maximum number of retries
+	 * @param minDelayNanos
+	 *            the minimum delay in nanoseconds
+	 * @param maxDelayNanos
+	 *            the maximum delay in nanoseconds
+	 * @param scheduler
+	 *            the scheduler of the delays
+	 */
+	BackOffRetry(long maxAttempts, long minDelayNanos, long maxDelayNanos, Scheduler scheduler) {
+		this.maxAttempts = maxAttempts;
+		this.minDelayNanos = minDelayNanos;
+		this.maxDelayNanos = maxDelayNanos;
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * Sets the error filter, the hooks, the exhaustion handling, the delay hint and
+	 * the maximum hinted delay. Must be called before the retry is used.
+	 *
+	 * @return this retry
+	 */
+	BackOffRetry<S> configure(Predicate<Throwable> filter, Function<RetrySignal, Mono<Void>> beforeRetry,
+			Consumer<RetrySignal> afterRetry, BiFunction<Retry, RetrySignal, Throwable> retryExhausted,
+			RetryDelayHint retryDelayHint, long maxHintedDelayNanos) {
+		this.filter = filter;
+		this.beforeRetry = beforeRetry;
+		this.afterRetry = afterRetry;
+		this.retryExhausted = retryExhausted;
+		this.retryDelayHint = retryDelayHint;
+		this.maxHintedDelayNanos = maxHintedDelayNanos;
+		return this;
+	}
+
+	/**
+	 * @return the state of a new call, or {@code null} if the strategy is stateless
+	 */
+	abstract S newState();
+
+	/**
+	 * Computes the delay of the next retry. The result is bounded by the minimum
+	 * and maximum delays.
+	 *
+	 * @param state
+	 *            the state of the call
+	 * @param signal
+	 *            the retried failure
+	 * @return the delay in nanoseconds
+	 */
+	abstract long delayNanos(S state, RetrySignal signal);
+
+	long getMinDelayNanos() {
+		return this.minDelayNanos;
+	}
+
+	long getMaxDelayNanos() {
+		return this.maxDelayNanos;
+	}
+
+	@Override
+	public Publisher<?> generateCompanion(Flux<RetrySignal> retrySignals) {
+		S state = newState();
+		return retrySignals.concatMap(retrySignal -> {
+			RetrySignal signal = retrySignal.copy();
+			if (!this.filter.test(signal.failure()))
+				return Mono.error(signal.failure());
+			if (signal.totalRetries() >= this.maxAttempts)
+				return Mono.error(this.retryExhausted.apply(this, signal));
+			Duration hint = this.retryDelayHint != null ? this.retryDelayHint.getDelay(signal.failure()) : null;
+			long delayNanos = hint != null
+					? Math.min(toNanos(hint), Math.min(this.maxDelayNanos, this.maxHintedDelayNanos))
+					: Math.min(Math.max(delayNanos(state, signal), this.minDelayNanos), this.maxDelayNanos);
+			return this.beforeRetry.apply(signal).then(delay(delayNanos))
+					.doOnNext(value -> this.afterRetry.accept(signal));
+		});
+	}
+
+	/**
+	 * @return the given delay in nanoseconds, 0 if it is negative and
+	 *         {@link Long#MAX_VALUE} if it overflows
+	 */
+	static long toNanos(Duration delay) {
+		if (delay.isNegative())
+			return 0;
+		try {
+			return delay.toNanos();
+		} catch (ArithmeticException ex) {
+			return Long.MAX_VALUE;
+		}
+	}
+
+	private Mono<Long> delay(long delayNanos) {
+		if (delayNanos <= 0)
+			return NO_DELAY;
+		return Mono.create(sink -> {
+			try {
+				sink.onCancel(
+						this.scheduler.schedule(() -> sink.success(delayNanos), delayNanos, TimeUnit.NANOSECONDS));
+			} catch (RejectedExecutionException ex) {
+				sink.error(ex);
+			}
+		});
+	}
+}
@@ -0,0 +1,283 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Non-blocking semaphore limiting the number of concurrent calls, or retrying
+ * calls, of a {@link ReactiveRetryInterceptor}, so that a slow dependency
+ * cannot hold all the connections and event loop time of the application.
+ * <p>
+ * A call that finds no permit available either fails fast with a
+ * {@link BulkheadFullException} or, with a maximum wait, waits in a FIFO queue
+ * for a permit to be released and fails if none is released in time. New calls
+ * queue behind the waiting calls rather than taking the released permits. The
+ * permit of a call is released exactly once, when the call completes, fails or
+ * is cancelled, including while it waits. The permits are counted with
+ * compare-and-set and handed to the waiting calls without locking. A bulkhead
+ * can be shared by several interceptors to limit a group of methods together.
+ * <p>
+ * With a {@link ConcurrencyLimit}, the maximum number of concurrent calls is
+ * adjusted from the latency and the outcome of each call. When the limit drops,
+ * the calls in flight complete normally and new calls wait until the calls in
+ * flight fall below the limit.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+public class Bulkhead {
+	private final int maxConcurrentCalls;
+
+	private final ConcurrencyLimit concurrencyLimit;
+
+	private final long maxWaitNanos;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private final Queue<Permit> waiters = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Create a new bulkhead.
+	 *
+	 * @param maxConcurrentCalls
+	 *            the maximum number of concurrent calls
+	 * @param maxWait
+	 *            how long a call waits for a permit, {@link Duration#ZERO} to fail
+	 *            fast
+	 */
+	public Bulkhead(int maxConcurrentCalls, Duration maxWait) {
+		Assert.isTrue(maxConcurrentCalls > 0, "maxConcurrentCalls must be greater than 0");
+		Assert.isTrue(maxWait != null && !maxWait.isNegative(), "maxWait must be greater than or equal to 0");
+		this.maxConcurrentCalls = maxConcurrentCalls;
+		this.concurrencyLimit = null;
+		this.maxWaitNanos = maxWait.toNanos();
+	}
+
+	/**
+	 * Create a new bulkhead with an adaptive limit.
+	 *
+	 * @param concurrencyLimit
+	 *            the limit of the concurrent calls, sampled when each call
+	 *            completes or fails
+	 * @param maxWait
+	 *            how long a call waits for a permit, {@link Duration#ZERO} to fail
+	 *            fast
+	 * @since 2.0.0
+	 */
+	public Bulkhead(ConcurrencyLimit concurrencyLimit, Duration maxWait) {
+		Assert.notNull(concurrencyLimit, "concurrencyLimit cannot be null");
+		Assert.isTrue(maxWait != null && !maxWait.isNegative(), "maxWait must be greater than or equal to 0");
+		this.maxConcurrentCalls = 0;
+		this.concurrencyLimit = concurrencyLimit;
+		this.maxWaitNanos = maxWait.toNanos();
+	}
+
+	/**
+	 * @return the maximum number of concurrent calls, the current limit with a
+	 *         {@link ConcurrencyLimit}
+	 */
+	public int getMaxConcurrentCalls() {
+		return this.concurrencyLimit != null ? Math.max(1, this.concurrencyLimit.getLimit())
+				: this.maxConcurrentCalls;
+	}
+
+	/**
+	 * @return the number of permits available, 0 while calls are waiting
+	 */
+	public int getAvailablePermits() {
+		return Math.max(0, getMaxConcurrentCalls() - this.inFlight.get());
+	}
+
+	/**
+	 * @return the number of calls holding a permit
+	 * @since 2.0.0
+	 */
+	public int getInFlight() {
+		return this.inFlight.get();
+	}
+
+	/**
+	 * Acquires a permit without waiting. A permit acquired with this method must be
+	 * released with {@link #release()}.
+	 *
+	 * @return {@code true} if a permit was acquired
+	 */
+	public boolean tryAcquire() {
+		int limit = getMaxConcurrentCalls();
+		for (;;) {
+			int inFlight = this.inFlight.get();
+			if (inFlight >= limit)
+				return false;
+			if (this.inFlight.compareAndSet(inFlight, inFlight + 1))
+				return true;
+		}
+	}
+
+	/**
+	 * Releases a permit, handing it to the first waiting call if any.
+	 */
+	public void release() {
+		this.inFlight.decrementAndGet();
+		drain();
+	}
+
+	/**
+	 * Subscribes to the given call once a permit is acquired, and releases the
+	 * permit when the call terminates or is cancelled.
+	 *
+	 * @param rejection
+	 *            the error signalled if no permit is acquired in time
+	 * @param recordDrop
+	 *            whether an error of the call is sampled as a failure by the
+	 *            concurrency limit
+	 * @param scheduler
+	 *            the scheduler of the maximum waits
+	 */
+	<T> Mono<T> limit(Mono<T> call, Supplier<Throwable> rejection, Predicate<Throwable> recordDrop,
+			Scheduler scheduler) {
+		return Mono.defer(() -> {
+			Permit permit = new Permit();
+			return permit.acquire(rejection, scheduler).then(call).doOnError(permit::onError)
+					.doFinally(signalType -> permit.release(signalType, recordDrop));
+		});
+	}
+
+	/**
+	 * Subscribes to the given call once a permit is acquired, and releases the
+	 * permit when the call terminates or is cancelled.
+	 *
+	 * @param rejection
+	 *            the error signalled if no permit is acquired in time
+	 * @param recordDrop
+	 *            whether an error of the call is sampled as a failure by the
+	 *            concurrency limit
+	 * @param scheduler
+	 *            the scheduler of the maximum waits
+	 */
+	<T> Flux<T> limit(Flux<T> call, Supplier<Throwable> rejection, Predicate<Throwable> recordDrop,
+			Scheduler scheduler) {
+		return Flux.defer(() -> {
+			Permit permit = new Permit();
+			return permit.acquire(rejection, scheduler).thenMany(call).doOnError(permit::onError)
+					.doFinally(signalType -> permit.release(signalType, recordDrop));
+		});
+	}
+
+	/**
+	 * Hands the available permits to the waiting calls. A permit is only handed to
+	 * a call that is still waiting, and put back if there is none, so that a call
+	 * queued concurrently with a release is not left waiting.
+	 */
+	private void drain() {
+		while (!this.waiters.isEmpty() && tryAcquire()) {
+			Permit waiter = this.waiters.poll();
+			while (waiter != null && !waiter.grant())
+				waiter = this.waiters.poll();
+			if (waiter == null)
+				this.inFlight.decrementAndGet();
+		}
+	}
+
+	/**
+	 * The permit of a single call, waiting, granted or done. The state only moves
+	 * forward with compare-and-set, so the permit is released at most once.
+	 */
+	private final class Permit extends AtomicInteger {
+		private static final int WAITING = 0;
+
+		private static final int GRANTED = 1;
+
+		private static final int DONE = 2;
+
+		private MonoSink<Void> sink;
+
+		private long grantedNanos;
+
+		private int grantedInFlight;
+
+		private Throwable error;
+
+		/**
+		 * Acquires a permit, or queues this call behind the calls already waiting, so
+		 * that a new call cannot take a permit released for a waiting one.
+		 */
+		private Mono<Void> acquire(Supplier<Throwable> rejection, Scheduler scheduler) {
+			if (waiters.isEmpty() && tryAcquire()) {
+				granted();
+				set(GRANTED);
+				return Mono.empty();
+			}
+			if (maxWaitNanos == 0) {
+				set(DONE);
+				return Mono.error(rejection);
+			}
+			return Mono.create(sink -> {
+				this.sink = sink;
+				try {
+					sink.onDispose(scheduler.schedule(() -> {
+						if (compareAndSet(WAITING, DONE))
+							sink.error(rejection.get());
+					}, maxWaitNanos, TimeUnit.NANOSECONDS));
+				} catch (RejectedExecutionException ex) {
+					set(DONE);
+					sink.error(ex);
+					return;
+				}
+				waiters.add(this);
+				drain();
+			});
+		}
+
+		/**
+		 * Hands a permit to this call if it is still waiting.
+		 *
+		 * @return {@code false} if the call no longer waits
+		 */
+		private boolean grant() {
+			granted();
+			if (!compareAndSet(WAITING, GRANTED))
+				return false;
+			this.sink.success();
+			return true;
+		}
+
+		/**
+		 * Records the start of the call, before the permit is published.
+		 */
+		private void granted() {
+			if (concurrencyLimit == null)
+				return;
+			this.grantedNanos = System.nanoTime();
+			this.grantedInFlight = inFlight.get();
+		}
+
+		private void onError(Throwable error) {
+			this.error = error;
+		}
+
+		private void release(SignalType signalType, Predicate<Throwable> recordDrop) {
+			// A waiting call is marked done first: otherwise a permit granted between
+			// the two transitions would never be released.
+			if (compareAndSet(WAITING, DONE) || !compareAndSet(GRANTED, DONE))
+				return;
+			if (concurrencyLimit != null && signalType != SignalType.CANCEL) {
+				boolean dropped = this.error != null && !(this.error instanceof ReactiveRetryRejectedException)
+						&& recordDrop.test(this.error);
+				concurrencyLimit.onSample(System.nanoTime() - this.grantedNanos, this.grantedInFlight, dropped);
+			}
+			Bulkhead.this.release();
+		}
+	}
+}
@@ -0,0 +1,22 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+/**
+ * Signalled instead of subscribing to the advised method when its
+ * {@link Bulkhead} has no permit available.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+public class BulkheadFullException extends ReactiveRetryRejectedException {
+	/**
+	 * Create a new bulkhead full exception.
+	 *
+	 * @param name
+	 *            the name of the interceptor
+	 * @param cause
+	 *            the failure of the previous attempt, if any
+	 */
+	public BulkheadFullException(String name, Throwable cause) {
+		super("Bulkhead of " + name + " is full", cause);
+	}
+}
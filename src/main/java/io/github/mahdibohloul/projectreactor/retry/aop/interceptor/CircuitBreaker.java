@@ -0,0 +1,244 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.springframework.util.Assert;
+
+/**
+ * Circuit breaker consulted by a {@link ReactiveRetryInterceptor} before each
+ * attempt.
+ * <p>
+ * The breaker is {@link State#CLOSED closed} while the failure rate of the last
+ * {@code slidingWindowSize} attempts is below the threshold. Once the window is
+ * full and the threshold is reached, it {@link State#OPEN opens} and rejects
+ * all attempts for the open duration, so calls fail fast with a
+ * {@link CircuitBreakerOpenException} without subscribing to the advised
+ * method. It then becomes {@link State#HALF_OPEN half-open} and permits
+ * {@code halfOpenProbes} attempts: the breaker closes if all of them succeed
+ * and opens again on the first failure.
+ * <p>
+ * The state is an immutable phase swapped with compare-and-set, so the only
+ * allocations happen on state transitions and no lock is taken on the call
+ * path. A permission belongs to the phase that granted it: the outcome of an
+ * attempt that completes after the breaker moved on, such as a slow attempt
+ * permitted while closed and completing while half-open, is ignored.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+public class CircuitBreaker {
+	/**
+	 * The permission returned by {@link #tryAcquirePermission()} when the attempt
+	 * is rejected.
+	 */
+	public static final long REJECTED = -1;
+
+	private final double failureRateThreshold;
+
+	private final int slidingWindowSize;
+
+	private final long openDurationNanos;
+
+	private final int halfOpenProbes;
+
+	private final AtomicReference<Phase> phase;
+
+	/**
+	 * Create a new circuit breaker, initially closed.
+	 *
+	 * @param failureRateThreshold
+	 *            the failure rate, between 0 exclusive and 1 inclusive, at which
+	 *            the breaker opens
+	 * @param slidingWindowSize
+	 *            the number of attempts the failure rate is computed on
+	 * @param openDuration
+	 *            how long the breaker stays open before probing the method again
+	 * @param halfOpenProbes
+	 *            the number of attempts permitted, and required to succeed, while
+	 *            half-open
+	 */
+	public CircuitBreaker(double failureRateThreshold, int slidingWindowSize, Duration openDuration,
+			int halfOpenProbes) {
+		Assert.isTrue(failureRateThreshold > 0 && failureRateThreshold <= 1,
+				"failureRateThreshold must be between 0 exclusive and 1 inclusive");
+		Assert.isTrue(slidingWindowSize > 0, "slidingWindowSize must be greater than 0");
+		Assert.isTrue(openDuration != null && !openDuration.isNegative(),
+				"openDuration must be greater than or equal to 0");
+		Assert.isTrue(halfOpenProbes > 0, "halfOpenProbes must be greater than 0");
+		this.failureRateThreshold = failureRateThreshold;
+		this.slidingWindowSize = slidingWindowSize;
+		this.openDurationNanos = openDuration.toNanos();
+		this.halfOpenProbes = halfOpenProbes;
+		this.phase = new AtomicReference<>(closed(null));
+	}
+
+	/**
+	 * Returns the current state of the breaker. An open breaker whose open duration
+	 * has elapsed is reported as open until the next attempt moves it to half-open.
+	 *
+	 * @return the current state
+	 */
+	public State getState() {
+		return this.phase.get().state;
+	}
+
+	/**
+	 * Acquires the permission to perform an attempt. Every acquired permission must
+	 * be passed to {@link #onSuccess(long)}, {@link #onError(long)} or
+	 * {@link #releasePermission(long)} once the attempt terminates.
+	 *
+	 * @return the permission, or {@link #REJECTED} if the attempt is not permitted
+	 */
+	public long tryAcquirePermission() {
+		while (true) {
+			Phase phase = this.phase.get();
+			if (phase.state == State.CLOSED)
+				return phase.generation;
+			if (phase.state == State.OPEN) {
+				if (System.nanoTime() - phase.openUntilNanos < 0)
+					return REJECTED;
+				this.phase.compareAndSet(phase, halfOpen(phase));
+				continue;
+			}
+			int available = phase.permits.get();
+			if (available <= 0)
+				return REJECTED;
+			if (phase.permits.compareAndSet(available, available - 1))
+				return phase.generation;
+		}
+	}
+
+	/**
+	 * Records a successful attempt, unless its permission was granted by a previous
+	 * phase.
+	 *
+	 * @param permission
+	 *            the permission of the attempt
+	 */
+	public void onSuccess(long permission) {
+		Phase phase = this.phase.get();
+		if (phase.generation != permission)
+			return;
+		if (phase.state == State.CLOSED)
+			phase.window.record(false);
+		else if (phase.state == State.HALF_OPEN && phase.successes.incrementAndGet() >= this.halfOpenProbes)
+			this.phase.compareAndSet(phase, closed(phase));
+	}
+
+	/**
+	 * Records a failed attempt, unless its permission was granted by a previous
+	 * phase.
+	 *
+	 * @param permission
+	 *            the permission of the attempt
+	 */
+	public void onError(long permission) {
+		Phase phase = this.phase.get();
+		if (phase.generation != permission)
+			return;
+		if (phase.state == State.HALF_OPEN
+				|| (phase.state == State.CLOSED && phase.window.record(true) >= this.failureRateThreshold))
+			this.phase.compareAndSet(phase, open(phase));
+	}
+
+	/**
+	 * Releases a permission without recording an outcome, for an attempt that was
+	 * cancelled or failed with an ignored error.
+	 *
+	 * @param permission
+	 *            the permission of the attempt
+	 */
+	public void releasePermission(long permission) {
+		Phase phase = this.phase.get();
+		if (phase.generation == permission && phase.state == State.HALF_OPEN)
+			phase.permits.incrementAndGet();
+	}
+
+	private Phase closed(Phase previous) {
+		return new Phase(State.CLOSED, previous, 0, new Window(this.slidingWindowSize));
+	}
+
+	private Phase open(Phase previous) {
+		return new Phase(State.OPEN, previous, System.nanoTime() + this.openDurationNanos, null);
+	}
+
+	private Phase halfOpen(Phase previous) {
+		Phase phase = new Phase(State.HALF_OPEN, previous, 0, null);
+		phase.permits.set(this.halfOpenProbes);
+		return phase;
+	}
+
+	/**
+	 * The states of a {@link CircuitBreaker}.
+	 */
+	public enum State {
+		/**
+		 * Attempts are permitted and their outcomes recorded.
+		 */
+		CLOSED,
+		/**
+		 * Attempts are rejected.
+		 */
+		OPEN,
+		/**
+		 * A limited number of probe attempts is permitted.
+		 */
+		HALF_OPEN
+	}
+
+	private static final class Phase {
+		private final State state;
+
+		private final long generation;
+
+		private final long openUntilNanos;
+
+		private final Window window;
+
+		private final AtomicInteger permits = new AtomicInteger();
+
+		private final AtomicInteger successes = new AtomicInteger();
+
+		private Phase(State state, Phase previous, long openUntilNanos, Window window) {
+			this.state = state;
+			this.generation = previous != null ? previous.generation + 1 : 0;
+			this.openUntilNanos = openUntilNanos;
+			this.window = window;
+		}
+	}
+
+	/**
+	 * Ring of the outcomes of the last attempts. The failures are counted
+	 * incrementally, so recording an outcome is constant time.
+	 */
+	private static final class Window {
+		private static final int SUCCESS = 1;
+
+		private static final int FAILURE = 2;
+
+		private final AtomicIntegerArray outcomes;
+
+		private final AtomicLong recorded = new AtomicLong();
+
+		private final AtomicInteger failures = new AtomicInteger();
+
+		private Window(int size) {
+			this.outcomes = new AtomicIntegerArray(size);
+		}
+
+		/**
+		 * @return the failure rate, or {@code 0} until the window is full
+		 */
+		private double record(boolean failure) {
+			int size = this.outcomes.length();
+			long index = this.recorded.getAndIncrement();
+			int previous = this.outcomes.getAndSet((int) (index % size), failure ? FAILURE : SUCCESS);
+			int delta = (failure ? 1 : 0) - (previous == FAILURE ? 1 : 0);
+			int failures = delta == 0 ? this.failures.get() : this.failures.addAndGet(delta);
+			return index + 1 < size ? 0 : (double) failures / size;
+		}
+	}
+}
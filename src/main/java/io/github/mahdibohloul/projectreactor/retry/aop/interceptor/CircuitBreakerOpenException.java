@@ -0,0 +1,22 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+/**
+ * Signalled instead of subscribing to the advised method while its
+ * {@link CircuitBreaker} does not permit calls.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+public class CircuitBreakerOpenException extends ReactiveRetryRejectedException {
+	/**
+	 * Create a new circuit breaker open exception.
+	 *
+	 * @param name
+	 *            the name of the interceptor
+	 * @param cause
+	 *            the failure of the previous attempt, if any
+	 */
+	public CircuitBreakerOpenException(String name, Throwable cause) {
+		super("Circuit breaker of " + name + " is open", cause);
+	}
+}
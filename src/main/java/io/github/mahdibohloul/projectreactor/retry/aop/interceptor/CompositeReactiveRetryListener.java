@@ -0,0 +1,103 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import java.util.List;
+import org.springframework.util.Assert;
+import reactor.core.publisher.SignalType;
+import reactor.util.retry.Retry;
+
+/**
+ * {@link ReactiveRetryListener} that notifies a fixed list of listeners in
+ * order.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+public class CompositeReactiveRetryListener implements ReactiveRetryListener {
+	private final ReactiveRetryListener[] listeners;
+
+	private final boolean supportsCallEvents;
+
+	public CompositeReactiveRetryListener(List<? extends ReactiveRetryListener> listeners) {
+		Assert.notNull(listeners, "listeners cannot be null");
+		this.listeners = listeners.toArray(new ReactiveRetryListener[0]);
+		this.supportsCallEvents = listeners.stream().anyMatch(ReactiveRetryListener::supportsCallEvents);
+	}
+
+	/**
+	 * Combine the given listeners into one.
+	 *
+	 * @param listeners
+	 *            the listeners to combine
+	 * @return {@link ReactiveRetryListener#NOOP} if the list is empty, the single
+	 *         listener if it has one element, a composite listener otherwise
+	 */
+	public static ReactiveRetryListener of(List<? extends ReactiveRetryListener> listeners) {
+		if (listeners.isEmpty())
+			return NOOP;
+		if (listeners.size() == 1)
+			return listeners.get(0);
+		return new CompositeReactiveRetryListener(listeners);
+	}
+
+	@Override
+	public void beforeRetry(String name, Retry.RetrySignal retrySignal) {
+		for (ReactiveRetryListener listener : this.listeners)
+			listener.beforeRetry(name, retrySignal);
+	}
+
+	@Override
+	public void afterRetry(String name, Retry.RetrySignal retrySignal) {
+		for (ReactiveRetryListener listener : this.listeners)
+			listener.afterRetry(name, retrySignal);
+	}
+
+	@Override
+	public void beforeCall(String name) {
+		for (ReactiveRetryListener listener : this.listeners)
+			if (listener.supportsCallEvents())
+				listener.beforeCall(name);
+	}
+
+	@Override
+	public void afterCall(String name, SignalType signalType, long durationNanos) {
+		for (ReactiveRetryListener listener : this.listeners)
+			if (listener.supportsCallEvents())
+				listener.afterCall(name, signalType, durationNanos);
+	}
+
+	@Override
+	public void onBackOff(String name, long delayNanos) {
+		for (ReactiveRetryListener listener : this.listeners)
+			if (listener.supportsCallEvents())
+				listener.onBackOff(name, delayNanos);
+	}
+
+	@Override
+	public void onRetryExhausted(String name, Retry.RetrySignal retrySignal) {
+		for (ReactiveRetryListener listener : this.listeners)
+			listener.onRetryExhausted(name, retrySignal);
+	}
+
+	@Override
+	public void onRetryRejected(String name, Retry.RetrySignal retrySignal) {
+		for (ReactiveRetryListener listener : this.listeners)
+			listener.onRetryRejected(name, retrySignal);
+	}
+
+	@Override
+	public void onFallback(String name, Throwable failure, boolean hit) {
+		for (ReactiveRetryListener listener : this.listeners)
+			listener.onFallback(name, failure, hit);
+	}
+
+	@Override
+	public void onNonRetryableError(String name, Throwable failure) {
+		for (ReactiveRetryListener listener : this.listeners)
+			listener.onNonRetryableError(name, failure);
+	}
+
+	@Override
+	public boolean supportsCallEvents() {
+		return this.supportsCallEvents;
+	}
+}
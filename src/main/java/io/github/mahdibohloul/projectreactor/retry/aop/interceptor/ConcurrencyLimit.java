@@ -0,0 +1,38 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+/**
+ * Limit of the concurrent attempts of a {@link Bulkhead}, adjusted from the
+ * latency and the outcome of the attempts instead of tuned by hand, so that the
+ * concurrency backs off when a dependency degrades and grows again when it
+ * recovers.
+ * <p>
+ * Implementations are sampled at the end of every attempt, so they must be
+ * thread-safe and should not block.
+ *
+ * @author Mahdi Bohloul
+ * @see AimdConcurrencyLimit
+ * @see VegasConcurrencyLimit
+ * @see GradientConcurrencyLimit
+ * @since 2.0.0
+ */
+public interface ConcurrencyLimit {
+	/**
+	 * @return the current maximum number of concurrent attempts, at least 1
+	 */
+	int getLimit();
+
+	/**
+	 * Adjusts the limit from a completed or failed attempt. Cancelled attempts are
+	 * not sampled.
+	 *
+	 * @param rttNanos
+	 *            the latency of the attempt, from the acquisition of its permit to
+	 *            its termination
+	 * @param inFlight
+	 *            the number of attempts in flight when the attempt started,
+	 *            including itself
+	 * @param dropped
+	 *            whether the attempt failed with an error counting as a failure
+	 */
+	void onSample(long rttNanos, int inFlight, boolean dropped);
+}
@@ -0,0 +1,33 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+/**
+ * The algorithms adapting the limit of the concurrent attempts of a method, see
+ * {@link ConcurrencyLimit}.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+public enum ConcurrencyLimitAlgorithm {
+	/**
+	 * No adaptive limit.
+	 */
+	NONE,
+
+	/**
+	 * Additive increase, multiplicative decrease on failures, see
+	 * {@link AimdConcurrencyLimit}.
+	 */
+	AIMD,
+
+	/**
+	 * Backs off as the latency rises above the latency without load, see
+	 * {@link VegasConcurrencyLimit}.
+	 */
+	VEGAS,
+
+	/**
+	 * Follows the ratio of the long-term to the current latency, see
+	 * {@link GradientConcurrencyLimit}.
+	 */
+	GRADIENT
+}
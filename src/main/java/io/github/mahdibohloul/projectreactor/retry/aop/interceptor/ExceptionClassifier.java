@@ -0,0 +1,105 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import java.util.function.Predicate;
+import org.springframework.util.Assert;
+
+/**
+ * Classifies failures as retryable or not from the include and exclude rules of
+ * a retry interceptor.
+ * <p>
+ * The verdict of the type rules is computed once per exception class and cached
+ * in a {@link ClassValue}, so classifying a failure is a constant-time lookup
+ * that does not allocate, whatever the number of rules. The failure and up to
+ * {@code causeDepth} of its causes are classified from the outermost one, the
+ * first failure matched by a rule decides, exclusions first. If no rule
+ * matches, the failure is retryable only when there are no include rules.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+public final class ExceptionClassifier implements Predicate<Throwable> {
+	private final boolean includeAll;
+
+	private final int causeDepth;
+
+	private final Predicate<? super Throwable> excludePredicate;
+
+	private final Predicate<? super Throwable> includePredicate;
+
+	private final ClassValue<Verdict> verdicts;
+
+	/**
+	 * Create a new classifier.
+	 *
+	 * @param include
+	 *            the types of exceptions that should be retried
+	 * @param exclude
+	 *            the types of exceptions that should not be retried
+	 * @param includePredicate
+	 *            an additional rule matching the exceptions that should be retried,
+	 *            or {@code null}
+	 * @param excludePredicate
+	 *            an additional rule matching the exceptions that should not be
+	 *            retried, or {@code null}
+	 * @param causeDepth
+	 *            how many causes of the failure are classified if the failure
+	 *            itself is not matched by any rule
+	 */
+	public ExceptionClassifier(Class<? extends Throwable>[] include, Class<? extends Throwable>[] exclude,
+			Predicate<? super Throwable> includePredicate, Predicate<? super Throwable> excludePredicate,
+			int causeDepth) {
+		Assert.notNull(include, "include cannot be null");
+		Assert.notNull(exclude, "exclude cannot be null");
+		Assert.isTrue(causeDepth >= 0, "causeDepth must be greater than or equal to 0");
+		Class<?>[] includes = include.clone();
+		Class<?>[] excludes = exclude.clone();
+		this.includeAll = includes.length == 0 && includePredicate == null;
+		this.causeDepth = causeDepth;
+		this.includePredicate = includePredicate;
+		this.excludePredicate = excludePredicate;
+		this.verdicts = new ClassValue<>() {
+			@Override
+			protected Verdict computeValue(Class<?> type) {
+				if (matches(excludes, type))
+					return Verdict.EXCLUDED;
+				if (matches(includes, type))
+					return Verdict.INCLUDED;
+				return Verdict.UNMATCHED;
+			}
+		};
+	}
+
+	/**
+	 * Whether the given failure should be retried.
+	 *
+	 * @param throwable
+	 *            the failure
+	 * @return {@code true} if the failure should be retried
+	 */
+	@Override
+	public boolean test(Throwable throwable) {
+		Throwable current = throwable;
+		for (int depth = 0; current != null && depth <= this.causeDepth; depth++) {
+			Verdict verdict = this.verdicts.get(current.getClass());
+			if (verdict == Verdict.EXCLUDED || (this.excludePredicate != null && this.excludePredicate.test(current)))
+				return false;
+			if (verdict == Verdict.INCLUDED || (this.includePredicate != null && this.includePredicate.test(current)))
+				return true;
+			Throwable cause = current.getCause();
+			current = cause != current ? cause : null;
+		}
+		return this.includeAll;
+	}
+
+	private static boolean matches(Class<?>[] types, Class<?> type) {
+		for (Class<?> candidate : types) {
+			if (candidate.isAssignableFrom(type))
+				return true;
+		}
+		return false;
+	}
+
+	private enum Verdict {
+		INCLUDED, EXCLUDED, UNMATCHED
+	}
+}
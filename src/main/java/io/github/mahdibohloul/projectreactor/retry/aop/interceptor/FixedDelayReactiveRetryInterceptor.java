@@ -1,5 +1,6 @@
 package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
 
+import reactor.util.retry.Retry;
 import reactor.util.retry.RetryBackoffSpec;
 
 /**
@@ -12,4 +13,8 @@ public class FixedDelayReactiveRetryInterceptor extends ReactiveRetryInterceptor
 	protected FixedDelayReactiveRetryInterceptor(RetryBackoffSpec retryPolicy) {
 		super(retryPolicy);
 	}
+
+	FixedDelayReactiveRetryInterceptor(Retry retryPolicy) {
+		super(retryPolicy);
+	}
 }
@@ -0,0 +1,29 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Backoff waiting the same delay before each retry. Unlike the fixed delay spec
+ * of Reactor, its delays can be replaced by a {@link RetryDelayHint}.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+final class FixedDelayRetry extends BackOffRetry<Void> {
+	private final long delayNanos;
+
+	FixedDelayRetry(long maxAttempts, long delayNanos, Scheduler scheduler) {
+		super(maxAttempts, 0, Long.MAX_VALUE, scheduler);
+		this.delayNanos = delayNanos;
+	}
+
+	@Override
+	Void newState() {
+		return null;
+	}
+
+	@Override
+	long delayNanos(Void state, RetrySignal signal) {
+		return this.delayNanos;
+	}
+}
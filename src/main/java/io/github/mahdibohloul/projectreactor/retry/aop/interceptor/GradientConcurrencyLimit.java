@@ -0,0 +1,77 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ConcurrencyLimit} following the gradient of the latency: the limit is
+ * scaled by the ratio of the long-term average latency, an exponentially
+ * weighted moving average over about 600 samples, to the latency of each
+ * attempt, tolerating latencies up to 1.5 times the average, plus a queue of
+ * {@code sqrt(limit)} attempts to keep probing for a higher limit. Each update
+ * moves the limit a fifth of the way to its new value.
+ * <p>
+ * Unlike {@link VegasConcurrencyLimit}, it does not depend on the lowest
+ * latency ever observed, which suits dependencies whose latency varies widely.
+ * The average recovers quickly after a burst of slow attempts, and a failed
+ * attempt halves the target limit.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+public class GradientConcurrencyLimit extends AbstractConcurrencyLimit {
+	private static final double TOLERANCE = 1.5;
+
+	private static final double SMOOTHING = 0.2;
+
+	private static final int WINDOW = 600;
+
+	private final AtomicLong longRttNanos = new AtomicLong();
+
+	/**
+	 * Create a new limit with a minimum of 1.
+	 *
+	 * @param initialLimit
+	 *            the limit before the first sample
+	 * @param maxLimit
+	 *            the maximum limit
+	 */
+	public GradientConcurrencyLimit(int initialLimit, int maxLimit) {
+		this(initialLimit, 1, maxLimit);
+	}
+
+	/**
+	 * Create a new limit.
+	 *
+	 * @param initialLimit
+	 *            the limit before the first sample
+	 * @param minLimit
+	 *            the minimum limit
+	 * @param maxLimit
+	 *            the maximum limit
+	 */
+	public GradientConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+		super(initialLimit, minLimit, maxLimit);
+	}
+
+	@Override
+	public void onSample(long rttNanos, int inFlight, boolean dropped) {
+		if (rttNanos <= 0)
+			return;
+		long longRttNanos = this.longRttNanos.accumulateAndGet(rttNanos, (average, rtt) -> {
+			if (average == 0)
+				return rtt;
+			// Recovers from a burst of slow attempts faster than the average alone.
+			if (average > 2 * rtt)
+				average -= average / 20;
+			return average + (rtt - average) / WINDOW;
+		});
+		update(limit -> {
+			if (!dropped && inFlight * 2 < limit)
+				return limit;
+			double gradient = dropped ? 0.5
+					: Math.max(0.5, Math.min(1, TOLERANCE * longRttNanos / rttNanos));
+			double target = limit * gradient + Math.sqrt(limit);
+			return limit * (1 - SMOOTHING) + target * SMOOTHING;
+		});
+	}
+}
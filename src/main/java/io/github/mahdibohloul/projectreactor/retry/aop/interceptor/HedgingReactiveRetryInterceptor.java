@@ -0,0 +1,270 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import org.aopalliance.intercept.MethodInvocation;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.retry.Retry;
+import reactor.util.retry.RetrySpec;
+
+/**
+ * HedgingReactiveRetryInterceptor is a reactive retry interceptor that hedges
+ * the invocations of {@link Mono} methods: if an attempt has not emitted within
+ * the hedge delay, another attempt is started in parallel, up to
+ * {@code maxHedges} additional attempts. The first value wins and the other
+ * attempts are cancelled. An attempt failing with a retryable error starts the
+ * next hedge immediately, a non-retryable error fails the call.
+ * <p>
+ * The hedge delay is either fixed or the observed percentile of the latency of
+ * the successful attempts. Every hedge is a retry, acquired from the
+ * {@link RetryBudget}, the retry bulkhead and the {@link CircuitBreaker}, and
+ * an attempt exceeding the attempt timeout counts as a retryable failure.
+ * Methods returning other single-value types are hedged through their reactive
+ * adapter, multi-value types are retried with the max attempts policy instead.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+public class HedgingReactiveRetryInterceptor extends ReactiveRetryInterceptor {
+	private final long hedgeDelayNanos;
+
+	private final LatencyPercentile latencyPercentile;
+
+	private final int maxHedges;
+
+	private final Predicate<Throwable> retryable;
+
+	private final Scheduler scheduler;
+
+	HedgingReactiveRetryInterceptor(RetrySpec retryPolicy, long hedgeDelayNanos, LatencyPercentile latencyPercentile,
+			int maxHedges, Predicate<Throwable> retryable, Scheduler scheduler) {
+		super(retryPolicy);
+		this.hedgeDelayNanos = hedgeDelayNanos;
+		this.latencyPercentile = latencyPercentile;
+		this.maxHedges = maxHedges;
+		this.retryable = retryable;
+		this.scheduler = scheduler;
+	}
+
+	@Override
+	public Object invoke(MethodInvocation invocation) throws Throwable {
+		ReactiveReturnType returnType = returnType(invocation.getMethod());
+		if (!returnType.isSingleValue())
+			return super.invoke(invocation);
+		InvocationTemplate template = new InvocationTemplate(invocation);
+		Mono<Object> hedged = bulkheadMono(Mono.defer(() -> {
+			ObservedCall call = new ObservedCall();
+			return overallTimeout(Mono.<Object>create(sink -> new HedgedCall(sink, template, returnType, call).start()))
+					.doFinally(call::afterCall);
+		}));
+		return toReturnValue(returnType,
+				coalesceMono(recoverMono(fallbackMono(hedged, template), template, returnType), template));
+	}
+
+	private long hedgeDelayNanos() {
+		if (this.latencyPercentile != null) {
+			long percentile = this.latencyPercentile.getNanos();
+			if (percentile >= 0)
+				return percentile;
+		}
+		return this.hedgeDelayNanos;
+	}
+
+	/**
+	 * State of a single hedged call. The attempts may signal on different threads,
+	 * so the state is guarded by the call itself; the lock is only held for a few
+	 * field updates and never while subscribing. The listener is notified of the
+	 * retries of the hedges started after a failure only, the hedges started by the
+	 * hedge delay do not follow any failure.
+	 */
+	private final class HedgedCall {
+		private final MonoSink<Object> sink;
+
+		private final InvocationTemplate template;
+
+		private final ReactiveReturnType returnType;
+
+		private final ObservedCall call;
+
+		private final Disposable.Composite attempts = Disposables.composite();
+
+		private Disposable timer;
+
+		private int started;
+
+		private int failed;
+
+		private boolean done;
+
+		private Throwable rejection;
+
+		private boolean retryRejected;
+
+		private HedgedCall(MonoSink<Object> sink, InvocationTemplate template, ReactiveReturnType returnType,
+				ObservedCall call) {
+			this.sink = sink;
+			this.template = template;
+			this.returnType = returnType;
+			this.call = call;
+		}
+
+		private void start() {
+			this.sink.onDispose(this::dispose);
+			if (launch(null))
+				return;
+			synchronized (this) {
+				this.done = true;
+			}
+			this.sink.error(this.rejection);
+		}
+
+		/**
+		 * Starts the first attempt, or a hedge after the hedge delay or after the given
+		 * retryable failure.
+		 *
+		 * @return {@code false} if no attempt could be started, because the hedges are
+		 *         exhausted or rejected
+		 */
+		private boolean launch(Throwable failure) {
+			HedgeSignal signal;
+			long permission;
+			synchronized (this) {
+				if (this.done)
+					return true;
+				this.rejection = null;
+				this.retryRejected = false;
+				if (this.started > maxHedges)
+					return false;
+				boolean hedge = this.started > 0;
+				if (hedge && !tryAcquireRetry()) {
+					this.retryRejected = true;
+					return false;
+				}
+				this.rejection = this.call.beforeAttempt(hedge);
+				if (this.rejection != null)
+					return false;
+				permission = this.call.getPermission();
+				signal = hedge && failure != null ? new HedgeSignal(this.started - 1, failure) : null;
+				this.started++;
+			}
+			if (signal != null) {
+				getListener().beforeRetry(getName(), signal);
+				getListener().afterRetry(getName(), signal);
+			}
+			long startNanos = System.nanoTime();
+			this.attempts.add(attemptMono(this.template, this.returnType)
+					.doOnSuccess(value -> this.call.afterAttemptComplete(permission))
+					.doOnCancel(() -> this.call.afterAttemptCancel(permission))
+					.subscribe(value -> onValue(value, startNanos), error -> onError(error, permission),
+							() -> onValue(null, startNanos)));
+			scheduleHedge();
+			return true;
+		}
+
+		private void scheduleHedge() {
+			long delayNanos = hedgeDelayNanos();
+			synchronized (this) {
+				if (this.done || this.started > maxHedges || delayNanos < 0)
+					return;
+				if (this.timer != null)
+					this.timer.dispose();
+				this.timer = scheduler.schedule(() -> launch(null), delayNanos, TimeUnit.NANOSECONDS);
+			}
+		}
+
+		private void onValue(Object value, long startNanos) {
+			synchronized (this) {
+				if (this.done)
+					return;
+				this.done = true;
+			}
+			if (latencyPercentile != null)
+				latencyPercentile.record(System.nanoTime() - startNanos);
+			if (value != null)
+				this.sink.success(value);
+			else
+				this.sink.success();
+		}
+
+		private void onError(Throwable error, long permission) {
+			boolean hedge = retryable.test(error);
+			synchronized (this) {
+				this.call.afterAttemptError(error, permission);
+				if (this.done)
+					return;
+				this.failed++;
+				if (!hedge)
+					this.done = true;
+			}
+			if (!hedge) {
+				this.sink.error(error);
+				return;
+			}
+			if (launch(error))
+				return;
+			Throwable rejection;
+			boolean retryRejected;
+			HedgeSignal signal;
+			synchronized (this) {
+				if (this.done || this.failed < this.started)
+					return;
+				this.done = true;
+				rejection = this.rejection;
+				retryRejected = this.retryRejected;
+				signal = new HedgeSignal(this.started - 1, error);
+			}
+			if (rejection != null) {
+				this.sink.error(rejection);
+				return;
+			}
+			if (retryRejected)
+				getListener().onRetryRejected(getName(), signal);
+			else
+				getListener().onRetryExhausted(getName(), signal);
+			this.sink.error(exhausted(error));
+		}
+
+		private void dispose() {
+			synchronized (this) {
+				this.done = true;
+				if (this.timer != null)
+					this.timer.dispose();
+			}
+			this.attempts.dispose();
+		}
+	}
+
+	/**
+	 * The retry signal of a hedge started after a failure, the hedges counting as
+	 * the retries of the call.
+	 */
+	private static final class HedgeSignal implements Retry.RetrySignal {
+		private final long totalRetries;
+
+		private final Throwable failure;
+
+		private HedgeSignal(long totalRetries, Throwable failure) {
+			this.totalRetries = totalRetries;
+			this.failure = failure;
+		}
+
+		@Override
+		public long totalRetries() {
+			return this.totalRetries;
+		}
+
+		@Override
+		public long totalRetriesInARow() {
+			return this.totalRetries;
+		}
+
+		@Override
+		public Throwable failure() {
+			return this.failure;
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+
+/**
+ * The invocation of a retried call, captured once per call and used to create
+ * the invocation of each attempt.
+ * <p>
+ * The intercepted invocation never proceeds itself, so that each attempt goes
+ * through the rest of the interceptor chain, see {@link ReactiveRetryUtil}.
+ * Unlike {@link ProxyMethodInvocation#invocableClone()}, the attempts share the
+ * argument array of the intercepted invocation instead of copying it. An
+ * interceptor that changes the arguments of an attempt must replace them with
+ * {@link ProxyMethodInvocation#setArguments(Object...)} rather than modify the
+ * array in place.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+final class InvocationTemplate {
+	private final MethodInvocation invocation;
+
+	private final ProxyMethodInvocation proxyInvocation;
+
+	private final Object[] arguments;
+
+	InvocationTemplate(MethodInvocation invocation) {
+		this.invocation = invocation;
+		this.proxyInvocation = invocation instanceof ProxyMethodInvocation proxy ? proxy : null;
+		this.arguments = invocation.getArguments();
+	}
+
+	private InvocationTemplate(InvocationTemplate template, Object[] arguments) {
+		this.invocation = template.invocation;
+		this.proxyInvocation = template.proxyInvocation;
+		this.arguments = arguments;
+	}
+
+	/**
+	 * @return the intercepted invocation
+	 */
+	MethodInvocation getInvocation() {
+		return this.invocation;
+	}
+
+	/**
+	 * @return the arguments of the attempts, which must not be modified
+	 */
+	Object[] getArguments() {
+		return this.arguments;
+	}
+
+	/**
+	 * Creates the template of the attempts invoked with the given arguments. The
+	 * arguments of an invocation that is not a proxy invocation cannot be replaced,
+	 * this template is then returned unchanged.
+	 *
+	 * @param arguments
+	 *            the arguments of the attempts
+	 * @return the template of the attempts
+	 */
+	InvocationTemplate withArguments(Object[] arguments) {
+		if (this.proxyInvocation == null)
+			return this;
+		return new InvocationTemplate(this, arguments);
+	}
+
+	/**
+	 * Proceeds with the invocation of a new attempt.
+	 *
+	 * @return the result of the attempt
+	 * @throws Throwable
+	 *             if the attempt fails
+	 */
+	Object proceed() throws Throwable {
+		if (this.proxyInvocation == null)
+			return this.invocation.proceed();
+		return this.proxyInvocation.invocableClone(this.arguments).proceed();
+	}
+}
@@ -0,0 +1,176 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.util.Assert;
+
+/**
+ * Bounded cache of the last successful value of each method and arguments,
+ * served when the retries of a call are exhausted.
+ * <p>
+ * The entries expire after the time to live and are evicted when they are read
+ * expired, and the oldest entries are evicted once {@code maximumSize} keys
+ * were inserted. With weak values, the cached values do not prevent their
+ * garbage collection. Reads and writes are lock-free; the hits and misses are
+ * counted. A value put while its key is being evicted may be dropped, it is
+ * cached again by the next successful call.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+public class LastSuccessCache {
+	private final int maximumSize;
+
+	private final long timeToLiveNanos;
+
+	private final boolean weakValues;
+
+	private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+	private final Queue<Key> insertionOrder = new ConcurrentLinkedQueue<>();
+
+	private final AtomicInteger queued = new AtomicInteger();
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * Create a new cache.
+	 *
+	 * @param maximumSize
+	 *            the maximum number of entries
+	 * @param timeToLive
+	 *            how long a value is served after it was emitted
+	 * @param weakValues
+	 *            whether the values are weakly referenced
+	 */
+	public LastSuccessCache(int maximumSize, Duration timeToLive, boolean weakValues) {
+		Assert.isTrue(maximumSize > 0, "maximumSize must be greater than 0");
+		Assert.isTrue(timeToLive != null && timeToLive.compareTo(Duration.ZERO) > 0,
+				"timeToLive must be greater than 0");
+		this.maximumSize = maximumSize;
+		this.timeToLiveNanos = timeToLive.toNanos();
+		this.weakValues = weakValues;
+	}
+
+	/**
+	 * @return the number of exhausted calls served from the cache
+	 */
+	public long getHitCount() {
+		return this.hits.sum();
+	}
+
+	/**
+	 * @return the number of exhausted calls without a cached value
+	 */
+	public long getMissCount() {
+		return this.misses.sum();
+	}
+
+	/**
+	 * @return the number of entries, including the expired ones not evicted yet
+	 */
+	public int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * @return the key of the method and arguments of the given invocation
+	 */
+	Object key(MethodInvocation invocation) {
+		return new Key(invocation.getMethod(), invocation.getArguments().clone());
+	}
+
+	void put(Object key, Object value) {
+		Key queuedKey = (Key) key;
+		// A replaced entry keeps the queued key of the entry it replaces, so that each
+		// cached key is queued at most once. The keys of the entries evicted on read
+		// stay queued and are skipped when polled, so the queue is bounded rather than
+		// the entries.
+		Entry entry = this.entries.compute(queuedKey,
+				(k, previous) -> new Entry(this.weakValues ? new WeakReference<>(value) : value,
+						System.nanoTime() + this.timeToLiveNanos, previous != null ? previous.queuedKey : queuedKey));
+		if (entry.queuedKey != queuedKey)
+			return;
+		this.insertionOrder.add(queuedKey);
+		int queued = this.queued.incrementAndGet();
+		while (queued > this.maximumSize) {
+			Key eldest = this.insertionOrder.poll();
+			if (eldest == null)
+				break;
+			this.entries.computeIfPresent(eldest, (k, cached) -> cached.queuedKey == eldest ? null : cached);
+			queued = this.queued.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Returns the cached value, evicting the entry if it expired or its value was
+	 * collected.
+	 *
+	 * @return the cached value, or {@code null} if there is none or it expired
+	 */
+	Object get(Object key) {
+		Entry entry = this.entries.get(key);
+		Object value = null;
+		if (entry != null) {
+			if (entry.expiresAtNanos - System.nanoTime() > 0)
+				value = this.weakValues ? ((WeakReference<?>) entry.value).get() : entry.value;
+			if (value == null)
+				this.entries.remove(key, entry);
+		}
+		if (value == null)
+			this.misses.increment();
+		else
+			this.hits.increment();
+		return value;
+	}
+
+	private static final class Entry {
+		private final Object value;
+
+		private final long expiresAtNanos;
+
+		private final Key queuedKey;
+
+		private Entry(Object value, long expiresAtNanos, Key queuedKey) {
+			this.value = value;
+			this.expiresAtNanos = expiresAtNanos;
+			this.queuedKey = queuedKey;
+		}
+	}
+
+	private static final class Key {
+		private final Method method;
+
+		private final Object[] arguments;
+
+		private final int hashCode;
+
+		private Key(Method method, Object[] arguments) {
+			this.method = method;
+			this.arguments = arguments;
+			this.hashCode = 31 * method.hashCode() + Arrays.deepHashCode(arguments);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return this == other || (other instanceof Key key && this.method.equals(key.method)
+					&& Arrays.deepEquals(this.arguments, key.arguments));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+}
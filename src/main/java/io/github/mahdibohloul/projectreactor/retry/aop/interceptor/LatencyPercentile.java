@@ -0,0 +1,82 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free estimate of a latency percentile. The latencies are recorded in a
+ * log-linear histogram of eight buckets per power of two, so the estimate is
+ * within 12.5% of the actual value. The percentile is recomputed, and the
+ * histogram decayed by half, every {@value #RECOMPUTE_INTERVAL} samples, so
+ * reading it is a volatile read and recent latencies weigh more than old ones.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+final class LatencyPercentile {
+	private static final int SUB_BUCKETS = 8;
+
+	private static final int RECOMPUTE_INTERVAL = 128;
+
+	private final double percentile;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(64 * SUB_BUCKETS);
+
+	private final AtomicLong samples = new AtomicLong();
+
+	private volatile long valueNanos = -1;
+
+	/**
+	 * @param percentile
+	 *            the percentile to estimate, between 0 exclusive and 100 exclusive
+	 */
+	LatencyPercentile(double percentile) {
+		this.percentile = percentile;
+	}
+
+	/**
+	 * @return the estimated percentile in nanoseconds, or {@code -1} until enough
+	 *         samples are recorded
+	 */
+	long getNanos() {
+		return this.valueNanos;
+	}
+
+	void record(long nanos) {
+		this.buckets.incrementAndGet(bucket(Math.max(1, nanos)));
+		if (this.samples.incrementAndGet() % RECOMPUTE_INTERVAL == 0)
+			recompute();
+	}
+
+	private void recompute() {
+		long total = 0;
+		for (int i = 0; i < this.buckets.length(); i++)
+			total += this.buckets.get(i);
+		long rank = (long) Math.ceil(total * this.percentile / 100);
+		long seen = 0;
+		for (int i = 0; i < this.buckets.length(); i++) {
+			seen += this.buckets.get(i);
+			if (seen >= rank) {
+				this.valueNanos = upperBound(i);
+				break;
+			}
+		}
+		for (int i = 0; i < this.buckets.length(); i++)
+			this.buckets.getAndUpdate(i, count -> count >> 1);
+	}
+
+	private static int bucket(long nanos) {
+		int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+		if (exponent < 3)
+			return (int) nanos;
+		return exponent * SUB_BUCKETS + (int) ((nanos >>> (exponent - 3)) & (SUB_BUCKETS - 1));
+	}
+
+	private static long upperBound(int bucket) {
+		int exponent = bucket / SUB_BUCKETS;
+		if (exponent < 3)
+			return bucket;
+		long subBucket = bucket % SUB_BUCKETS;
+		return ((SUB_BUCKETS + subBucket + 1) << (exponent - 3)) - 1;
+	}
+}
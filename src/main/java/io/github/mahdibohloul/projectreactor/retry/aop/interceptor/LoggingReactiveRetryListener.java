@@ -0,0 +1,103 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.springframework.util.Assert;
+import reactor.util.retry.Retry;
+
+/**
+ * {@link ReactiveRetryListener} that logs the retries of each interceptor at
+ * most once per interval. The retries that happen in between are counted and
+ * reported with the next log line, so a downstream outage produces one line per
+ * method and interval instead of one line per failed call.
+ * <p>
+ * By default, the retries are logged at {@link Level#WARN} once per second and
+ * without the stack trace of the failure.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+public class LoggingReactiveRetryListener implements ReactiveRetryListener {
+	private static final Logger log = LoggerFactory.getLogger(LoggingReactiveRetryListener.class);
+
+	private static final String RETRYING_MESSAGE = "Retrying {}, retry: {}, suppressed retries: {}";
+
+	private static final String RETRYING_WITH_CAUSE_MESSAGE = RETRYING_MESSAGE + ", failure: {}";
+
+	private final Level level;
+
+	private final long intervalNanos;
+
+	private final boolean logStackTrace;
+
+	private final ConcurrentMap<String, RateLimit> rateLimits = new ConcurrentHashMap<>();
+
+	public LoggingReactiveRetryListener() {
+		this(Level.WARN, Duration.ofSeconds(1), false);
+	}
+
+	/**
+	 * Create a new logging listener.
+	 *
+	 * @param level
+	 *            the level the retries are logged at
+	 * @param interval
+	 *            the minimum interval between two log lines of the same
+	 *            interceptor, {@link Duration#ZERO} to log every retry
+	 * @param logStackTrace
+	 *            whether the stack trace of the failure should be logged, otherwise
+	 *            only its {@code toString()} is
+	 */
+	public LoggingReactiveRetryListener(Level level, Duration interval, boolean logStackTrace) {
+		Assert.notNull(level, "level cannot be null");
+		Assert.isTrue(interval != null && !interval.isNegative(), "interval must be greater than or equal to 0");
+		this.level = level;
+		this.intervalNanos = interval.toNanos();
+		this.logStackTrace = logStackTrace;
+	}
+
+	@Override
+	public void beforeRetry(String name, Retry.RetrySignal retrySignal) {
+		if (!log.isEnabledForLevel(this.level))
+			return;
+		RateLimit rateLimit = this.rateLimits.get(name);
+		if (rateLimit == null)
+			rateLimit = this.rateLimits.computeIfAbsent(name, key -> new RateLimit());
+		long suppressed = rateLimit.tryAcquire(this.intervalNanos);
+		if (suppressed < 0)
+			return;
+		LoggingEventBuilder event = log.atLevel(this.level).addArgument(name)
+				.addArgument(retrySignal.totalRetries() + 1).addArgument(suppressed);
+		if (this.logStackTrace)
+			event.setMessage(RETRYING_MESSAGE).setCause(retrySignal.failure()).log();
+		else
+			event.setMessage(RETRYING_WITH_CAUSE_MESSAGE).addArgument(retrySignal.failure()).log();
+	}
+
+	private static final class RateLimit {
+		private final AtomicLong nextReportNanos = new AtomicLong(System.nanoTime());
+
+		private final LongAdder suppressed = new LongAdder();
+
+		/**
+		 * @return the number of suppressed events since the last report, or {@code -1}
+		 *         if this event should be suppressed too
+		 */
+		private long tryAcquire(long intervalNanos) {
+			long now = System.nanoTime();
+			long nextReport = this.nextReportNanos.get();
+			if (now - nextReport < 0 || !this.nextReportNanos.compareAndSet(nextReport, now + intervalNanos)) {
+				this.suppressed.increment();
+				return -1;
+			}
+			return this.suppressed.sumThenReset();
+		}
+	}
+}
@@ -0,0 +1,17 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import reactor.util.retry.Retry;
+
+/**
+ * PolicyReactiveRetryInterceptor is a reactive retry interceptor that retries
+ * the invocation with the current settings of a named policy of a
+ * {@link ReactiveRetryPolicyRegistry}.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+public class PolicyReactiveRetryInterceptor extends ReactiveRetryInterceptor {
+	protected PolicyReactiveRetryInterceptor(Retry retryPolicy) {
+		super(retryPolicy);
+	}
+}
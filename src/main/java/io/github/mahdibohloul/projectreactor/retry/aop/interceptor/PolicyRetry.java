@@ -0,0 +1,58 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import java.util.function.Function;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+/**
+ * {@link Retry} delegating to the spec created from the current settings of a
+ * named policy. The registry is consulted on each subscription, and the spec is
+ * recreated, through a volatile reference, only when the policy was replaced
+ * since the last subscription.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+final class PolicyRetry extends Retry {
+	private final ReactiveRetryPolicyRegistry registry;
+
+	private final String policyName;
+
+	private final Function<ReactiveRetryPolicy, Retry> specFactory;
+
+	private volatile Spec spec;
+
+	PolicyRetry(ReactiveRetryPolicyRegistry registry, String policyName,
+			Function<ReactiveRetryPolicy, Retry> specFactory) {
+		this.registry = registry;
+		this.policyName = policyName;
+		this.specFactory = specFactory;
+	}
+
+	@Override
+	public Publisher<?> generateCompanion(Flux<RetrySignal> retrySignals) {
+		ReactiveRetryPolicy policy = this.registry.getPolicy(this.policyName);
+		if (policy == null)
+			return Flux.error(new IllegalStateException("No retry policy named '" + this.policyName + "'"));
+		Spec spec = this.spec;
+		if (spec == null || spec.policy != policy) {
+			// Concurrent subscriptions may create the same spec twice, the specs are
+			// immutable so either one can be kept.
+			spec = new Spec(policy, this.specFactory.apply(policy));
+			this.spec = spec;
+		}
+		return spec.retry.generateCompanion(retrySignals);
+	}
+
+	private static final class Spec {
+		private final ReactiveRetryPolicy policy;
+
+		private final Retry retry;
+
+		private Spec(ReactiveRetryPolicy policy, Retry retry) {
+			this.policy = policy;
+			this.retry = retry;
+		}
+	}
+}
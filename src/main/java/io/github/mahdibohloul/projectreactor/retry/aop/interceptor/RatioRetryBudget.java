@@ -0,0 +1,107 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.util.Assert;
+
+/**
+ * {@link RetryBudget} that limits the retries to a ratio of the calls over a
+ * sliding window. With a ratio of {@code 0.1}, at most one retry is performed
+ * for every ten calls in the window, in addition to a minimum number of retries
+ * that keeps low traffic methods retryable.
+ * <p>
+ * The window is split into buckets of {@link LongAdder}s that are reset when
+ * the window slides over them, so recording a call never contends and the
+ * counts are only summed when a retry is requested. The budget is approximate:
+ * concurrent retries may slightly exceed the ratio at the edge of the budget.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+public class RatioRetryBudget implements RetryBudget {
+	private static final int BUCKETS = 10;
+
+	private final double ratio;
+
+	private final long minRetries;
+
+	private final long bucketNanos;
+
+	private final Bucket[] buckets = new Bucket[BUCKETS];
+
+	/**
+	 * Create a new ratio budget with a minimum of 10 retries per window.
+	 *
+	 * @param ratio
+	 *            the maximum number of retries per call
+	 * @param window
+	 *            the duration over which the calls and retries are counted
+	 */
+	public RatioRetryBudget(double ratio, Duration window) {
+		this(ratio, window, 10);
+	}
+
+	/**
+	 * Create a new ratio budget.
+	 *
+	 * @param ratio
+	 *            the maximum number of retries per call
+	 * @param window
+	 *            the duration over which the calls and retries are counted
+	 * @param minRetries
+	 *            the number of retries allowed in the window regardless of the
+	 *            number of calls
+	 */
+	public RatioRetryBudget(double ratio, Duration window, long minRetries) {
+		Assert.isTrue(ratio >= 0, "ratio must be greater than or equal to 0");
+		Assert.isTrue(window != null && window.toNanos() >= BUCKETS, "window must be positive");
+		Assert.isTrue(minRetries >= 0, "minRetries must be greater than or equal to 0");
+		this.ratio = ratio;
+		this.minRetries = minRetries;
+		this.bucketNanos = window.toNanos() / BUCKETS;
+		for (int i = 0; i < BUCKETS; i++)
+			this.buckets[i] = new Bucket();
+	}
+
+	@Override
+	public void onCall() {
+		bucket(Math.floorDiv(System.nanoTime(), this.bucketNanos)).calls.increment();
+	}
+
+	@Override
+	public boolean tryAcquire() {
+		long epoch = Math.floorDiv(System.nanoTime(), this.bucketNanos);
+		Bucket current = bucket(epoch);
+		long calls = 0;
+		long retries = 0;
+		for (Bucket bucket : this.buckets) {
+			if (epoch - bucket.epoch.get() < BUCKETS) {
+				calls += bucket.calls.sum();
+				retries += bucket.retries.sum();
+			}
+		}
+		if (retries >= this.minRetries + this.ratio * calls)
+			return false;
+		current.retries.increment();
+		return true;
+	}
+
+	private Bucket bucket(long epoch) {
+		Bucket bucket = this.buckets[(int) Math.floorMod(epoch, BUCKETS)];
+		long bucketEpoch = bucket.epoch.get();
+		if (bucketEpoch != epoch && bucket.epoch.compareAndSet(bucketEpoch, epoch)) {
+			bucket.calls.reset();
+			bucket.retries.reset();
+		}
+		return bucket;
+	}
+
+	private static final class Bucket {
+		private final AtomicLong epoch = new AtomicLong(Long.MIN_VALUE);
+
+		private final LongAdder calls = new LongAdder();
+
+		private final LongAdder retries = new LongAdder();
+	}
+}
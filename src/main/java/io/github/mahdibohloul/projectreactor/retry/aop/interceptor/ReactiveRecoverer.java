@@ -0,0 +1,29 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Strategy to recover from the failure of a retried call, once its retries are
+ * exhausted or its failure is not retryable.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+@FunctionalInterface
+public interface ReactiveRecoverer {
+
+	/**
+	 * Recovers from the failure of the given invocation.
+	 *
+	 * @param invocation
+	 *            the failed invocation, which must not proceed
+	 * @param failure
+	 *            the failure of the call
+	 * @return a value of the return type of the invoked method, such as a
+	 *         {@code Mono} emitting a default value
+	 * @throws Throwable
+	 *             the failure to propagate, for instance the given one if it cannot
+	 *             be recovered
+	 */
+	Object recover(MethodInvocation invocation, Throwable failure) throws Throwable;
+}
@@ -0,0 +1,27 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+/**
+ * Strategy to resume a retried {@code Flux} call after the last element it
+ * emitted, instead of resubscribing to the whole stream and emitting the
+ * elements of the failed attempts again, for instance to read the next page of
+ * a paged query from the offset of the last record read.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+@FunctionalInterface
+public interface ReactiveResumer {
+
+	/**
+	 * Computes the arguments of the attempt resuming the call after the given
+	 * element. Only called when the failed attempt emitted at least one element,
+	 * otherwise the next attempt reuses the arguments of the failed one.
+	 *
+	 * @param arguments
+	 *            the arguments of the failed attempt, which must not be modified
+	 * @param lastElement
+	 *            the last element emitted by the call
+	 * @return the arguments of the next attempt
+	 */
+	Object[] resume(Object[] arguments, Object lastElement);
+}
@@ -1,10 +1,22 @@
 package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
 
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
-import org.reactivestreams.Publisher;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.interceptor.SimpleKey;
+import reactor.core.Exceptions;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 import reactor.util.retry.Retry;
 
 /**
@@ -16,6 +28,48 @@ public abstract class ReactiveRetryInterceptor implements MethodInterceptor {
 
 	private final Retry retryPolicy;
 
+	private String name = "default";
+
+	private ReactiveRetryListener listener = ReactiveRetryListener.NOOP;
+
+	private boolean callEvents;
+
+	private RetryBudget retryBudget = RetryBudget.UNLIMITED;
+
+	private CircuitBreaker circuitBreaker;
+
+	private Predicate<Throwable> recordFailure;
+
+	private Duration attemptTimeout;
+
+	private Duration overallTimeout;
+
+	private Scheduler timeoutScheduler = Schedulers.parallel();
+
+	private ReactiveRecoverer recoverer;
+
+	private LastSuccessCache fallbackCache;
+
+	private KeyGenerator coalescingKeyGenerator;
+
+	private ConcurrentMap<Object, SharedCall<?>> sharedCalls;
+
+	private AttemptStatistics attemptStatistics;
+
+	private Bulkhead callBulkhead;
+
+	private Bulkhead retryBulkhead;
+
+	private Bulkhead attemptBulkhead;
+
+	private Predicate<Throwable> recordDrop;
+
+	private Scheduler blockingScheduler;
+
+	private ReactiveResumer resumer;
+
+	private final ConcurrentMap<Method, ReactiveReturnType> returnTypes = new ConcurrentHashMap<>(4);
+
 	protected ReactiveRetryInterceptor(Retry retryPolicy) {
 		this.retryPolicy = retryPolicy;
 	}
@@ -32,36 +86,629 @@ public abstract class ReactiveRetryInterceptor implements MethodInterceptor {
 	 */
 	@Override
 	public Object invoke(MethodInvocation invocation) throws Throwable {
-		if (!isPublisher(invocation.getMethod().getReturnType()))
+		ReactiveReturnType returnType = returnType(invocation.getMethod());
+		if (!returnType.isReactive())
 			return invocation.proceed();
-		if (isMono(invocation.getMethod().getReturnType()))
-			return Mono.defer(() -> {
-				try {
-					return (Mono) ReactiveRetryUtil.invocableClone(invocation).proceed();
-				} catch (Throwable t) {
-					return Mono.error(t);
-				}
-			}).retryWhen(retryPolicy);
-		if (isFlux(invocation.getMethod().getReturnType()))
-			return Flux.defer(() -> {
-				try {
-					return (Flux) ReactiveRetryUtil.invocableClone(invocation).proceed();
-				} catch (Throwable t) {
-					return Flux.error(t);
-				}
-			}).retryWhen(this.retryPolicy);
-		return invocation.proceed();
-	}
-
-	private boolean isFlux(Class<?> returnType) {
-		return returnType.equals(Flux.class);
-	}
-
-	private boolean isMono(Class<?> returnType) {
-		return returnType.equals(Mono.class);
-	}
-
-	private boolean isPublisher(Class<?> returnType) {
-		return Publisher.class.isAssignableFrom(returnType);
+		InvocationTemplate template = new InvocationTemplate(invocation);
+		if (returnType.isSingleValue())
+			return toReturnValue(returnType, coalesceMono(recoverMono(
+					fallbackMono(bulkheadMono(retryMono(template, returnType)), template), template, returnType),
+					template));
+		Flux<?> call = bulkheadFlux(retryFlux(template, returnType));
+		if (this.fallbackCache != null)
+			call = call.onErrorMap(RetryExhaustedException.class, Throwable::getCause);
+		return returnType.fromPublisher(recoverFlux(call, template, returnType));
+	}
+
+	private Mono<?> retryMono(InvocationTemplate template, ReactiveReturnType returnType) {
+		if (!isObserved())
+			return overallTimeout(Mono.defer(() -> attemptMono(template, returnType)).retryWhen(this.retryPolicy));
+		return Mono.defer(() -> {
+			ObservedCall call = new ObservedCall();
+			return overallTimeout(Mono.defer(() -> {
+				Throwable rejection = call.beforeAttempt();
+				if (rejection != null)
+					return Mono.error(rejection);
+				Mono<?> attempt = attemptMono(template, returnType).doOnError(call::afterAttemptError);
+				if (this.circuitBreaker == null)
+					return attempt;
+				return attempt.doOnSuccess(value -> call.afterAttemptComplete()).doOnCancel(call::afterAttemptCancel);
+			}).retryWhen(this.retryPolicy)).doFinally(call::afterCall);
+		});
+	}
+
+	private Flux<?> retryFlux(InvocationTemplate template, ReactiveReturnType returnType) {
+		if (this.resumer == null)
+			return retryFlux(() -> attemptFlux(template, returnType));
+		return Flux.defer(() -> {
+			ResumedCall call = new ResumedCall(template);
+			return retryFlux(() -> attemptFlux(call.nextTemplate(), returnType).doOnNext(call::onNext));
+		});
+	}
+
+	private Flux<?> retryFlux(Supplier<Flux<?>> attempts) {
+		if (!isObserved())
+			return overallTimeout(Flux.defer(() -> attempts.get()).retryWhen(this.retryPolicy));
+		return Flux.defer(() -> {
+			ObservedCall call = new ObservedCall();
+			return overallTimeout(Flux.defer(() -> {
+				Throwable rejection = call.beforeAttempt();
+				if (rejection != null)
+					return Flux.error(rejection);
+				Flux<?> attempt = attempts.get().doOnError(call::afterAttemptError);
+				if (this.circuitBreaker == null)
+					return attempt;
+				return attempt.doOnComplete(call::afterAttemptComplete).doOnCancel(call::afterAttemptCancel);
+			}).retryWhen(this.retryPolicy)).doFinally(call::afterCall);
+		});
+	}
+
+	/**
+	 * Sets the name and the listener notified of the calls of this interceptor.
+	 *
+	 * @param name
+	 *            the name of the interceptor
+	 * @param listener
+	 *            the listener notified of the call events
+	 */
+	void setListener(String name, ReactiveRetryListener listener) {
+		this.name = name;
+		this.listener = listener;
+		this.callEvents = listener.supportsCallEvents();
+	}
+
+	/**
+	 * Sets the budget notified of the calls of this interceptor.
+	 *
+	 * @param retryBudget
+	 *            the retry budget
+	 */
+	void setRetryBudget(RetryBudget retryBudget) {
+		this.retryBudget = retryBudget;
+	}
+
+	/**
+	 * Sets the circuit breaker consulted before each attempt of this interceptor.
+	 *
+	 * @param circuitBreaker
+	 *            the circuit breaker
+	 * @param recordFailure
+	 *            whether an error counts as a failure of the breaker, other errors
+	 *            are ignored
+	 */
+	void setCircuitBreaker(CircuitBreaker circuitBreaker, Predicate<Throwable> recordFailure) {
+		this.circuitBreaker = circuitBreaker;
+		this.recordFailure = recordFailure;
+	}
+
+	/**
+	 * Sets the timeouts of the attempts and of the whole call of this interceptor.
+	 *
+	 * @param attemptTimeout
+	 *            the timeout of each attempt, or {@code null} for none
+	 * @param overallTimeout
+	 *            the timeout of the call including all retries and backoff delays,
+	 *            or {@code null} for none
+	 * @param timeoutScheduler
+	 *            the scheduler the timeouts are scheduled on
+	 */
+	void setTimeouts(Duration attemptTimeout, Duration overallTimeout, Scheduler timeoutScheduler) {
+		this.attemptTimeout = attemptTimeout;
+		this.overallTimeout = overallTimeout;
+		this.timeoutScheduler = timeoutScheduler;
+	}
+
+	/**
+	 * Sets the recoverer of the failed calls of this interceptor.
+	 *
+	 * @param recoverer
+	 *            the recoverer, or {@code null} to propagate the failures
+	 */
+	void setRecoverer(ReactiveRecoverer recoverer) {
+		this.recoverer = recoverer;
+	}
+
+	/**
+	 * Sets the cache of the last successful values served when the retries of a
+	 * {@code Mono} call are exhausted.
+	 *
+	 * @param fallbackCache
+	 *            the cache, or {@code null} to propagate the failures
+	 */
+	void setFallbackCache(LastSuccessCache fallbackCache) {
+		this.fallbackCache = fallbackCache;
+	}
+
+	/**
+	 * Sets the key generator of the concurrent calls sharing a single retrying
+	 * subscription.
+	 *
+	 * @param coalescingKeyGenerator
+	 *            the key generator, or {@code null} to subscribe to each call
+	 */
+	void setCoalescing(KeyGenerator coalescingKeyGenerator) {
+		this.coalescingKeyGenerator = coalescingKeyGenerator;
+		this.sharedCalls = coalescingKeyGenerator != null ? new ConcurrentHashMap<>() : null;
+	}
+
+	/**
+	 * Sets the statistics recording the latency and the outcome of each attempt of
+	 * this interceptor.
+	 *
+	 * @param attemptStatistics
+	 *            the statistics, or {@code null} to record nothing
+	 */
+	void setAttemptStatistics(AttemptStatistics attemptStatistics) {
+		this.attemptStatistics = attemptStatistics;
+	}
+
+	/**
+	 * Sets the bulkheads limiting the concurrent calls and the concurrent retrying
+	 * calls of this interceptor.
+	 *
+	 * @param callBulkhead
+	 *            the bulkhead of the calls, or {@code null} for no limit
+	 * @param retryBulkhead
+	 *            the bulkhead of the retrying calls, or {@code null} for no limit
+	 */
+	void setBulkheads(Bulkhead callBulkhead, Bulkhead retryBulkhead) {
+		this.callBulkhead = callBulkhead;
+		this.retryBulkhead = retryBulkhead;
+	}
+
+	/**
+	 * Sets the bulkhead limiting the concurrent attempts of this interceptor,
+	 * retries and hedges included, usually with an adaptive
+	 * {@link ConcurrencyLimit}.
+	 *
+	 * @param attemptBulkhead
+	 *            the bulkhead of the attempts, or {@code null} for no limit
+	 * @param recordDrop
+	 *            whether an error of an attempt is sampled as a failure by the
+	 *            concurrency limit
+	 */
+	void setAttemptBulkhead(Bulkhead attemptBulkhead, Predicate<Throwable> recordDrop) {
+		this.attemptBulkhead = attemptBulkhead;
+		this.recordDrop = recordDrop;
+	}
+
+	/**
+	 * Sets the scheduler the attempts are invoked on, for methods that block before
+	 * they return. The methods that do not return a reactive type are then retried
+	 * too: their caller waits for the retried call, including its backoff delays.
+	 *
+	 * @param blockingScheduler
+	 *            the scheduler of the attempts, usually backed by virtual threads,
+	 *            or {@code null} to invoke the attempts on the subscribing thread
+	 *            and the blocking methods without retry
+	 */
+	void setBlockingScheduler(Scheduler blockingScheduler) {
+		this.blockingScheduler = blockingScheduler;
+		this.returnTypes.clear();
+	}
+
+	/**
+	 * Sets the strategy resuming the retried {@code Flux} calls after the last
+	 * element they emitted.
+	 *
+	 * @param resumer
+	 *            the resumer, or {@code null} to resubscribe to the whole stream
+	 */
+	void setResumer(ReactiveResumer resumer) {
+		this.resumer = resumer;
+	}
+
+	String getName() {
+		return this.name;
+	}
+
+	ReactiveRetryListener getListener() {
+		return this.listener;
+	}
+
+	/**
+	 * Acquires a retry from the retry budget, unless the circuit breaker is open,
+	 * like the retries of the configured retry spec.
+	 *
+	 * @return {@code false} if the retry is rejected
+	 */
+	boolean tryAcquireRetry() {
+		if (this.circuitBreaker != null && this.circuitBreaker.getState() == CircuitBreaker.State.OPEN)
+			return false;
+		return this.retryBudget.tryAcquire();
+	}
+
+	/**
+	 * Resolves the return type of the given method. The interceptor of a class
+	 * level annotation serves every method of the class, so the types are kept per
+	 * method.
+	 */
+	ReactiveReturnType returnType(Method method) {
+		ReactiveReturnType returnType = this.returnTypes.get(method);
+		if (returnType == null)
+			returnType = this.returnTypes.computeIfAbsent(method, this::resolveReturnType);
+		return returnType;
+	}
+
+	private ReactiveReturnType resolveReturnType(Method method) {
+		ReactiveReturnType returnType = ReactiveReturnType.of(method);
+		if (!returnType.isReactive() && this.blockingScheduler != null)
+			return ReactiveReturnType.blocking(method);
+		return returnType;
+	}
+
+	private boolean isObserved() {
+		return this.callEvents || this.retryBudget != RetryBudget.UNLIMITED || this.circuitBreaker != null
+				|| this.retryBulkhead != null;
+	}
+
+	/**
+	 * Proceeds with a single attempt once it acquires a permit of the attempt
+	 * bulkhead, if any. A rejected attempt fails the call with a
+	 * {@link BulkheadFullException}, which is not retried.
+	 */
+	Mono<?> attemptMono(InvocationTemplate template, ReactiveReturnType returnType) {
+		Bulkhead bulkhead = this.attemptBulkhead;
+		if (bulkhead == null)
+			return proceedAttemptMono(template, returnType);
+		return bulkhead.limit(Mono.defer(() -> proceedAttemptMono(template, returnType)),
+				() -> new BulkheadFullException(this.name, null), this.recordDrop, this.timeoutScheduler);
+	}
+
+	private Flux<?> attemptFlux(InvocationTemplate template, ReactiveReturnType returnType) {
+		Bulkhead bulkhead = this.attemptBulkhead;
+		if (bulkhead == null)
+			return proceedAttemptFlux(template, returnType);
+		return bulkhead.limit(Flux.defer(() -> proceedAttemptFlux(template, returnType)),
+				() -> new BulkheadFullException(this.name, null), this.recordDrop, this.timeoutScheduler);
+	}
+
+	/**
+	 * Proceeds with a single attempt, failing with a retryable
+	 * {@link TimeoutException} if the attempt does not terminate within the attempt
+	 * timeout.
+	 */
+	private Mono<?> proceedAttemptMono(InvocationTemplate template, ReactiveReturnType returnType) {
+		AttemptStatistics statistics = this.attemptStatistics;
+		long startNanos = statistics != null ? System.nanoTime() : 0;
+		Mono<?> attempt = proceedMono(template, returnType);
+		if (this.attemptTimeout != null)
+			attempt = attempt.timeout(this.attemptTimeout, this.timeoutScheduler);
+		if (statistics == null)
+			return attempt;
+		return attempt.doOnSuccess(value -> statistics.recordSuccess(System.nanoTime() - startNanos))
+				.doOnError(statistics::recordError);
+	}
+
+	/**
+	 * Proceeds with a single attempt, failing with a retryable
+	 * {@link TimeoutException} if the first element, or the next one, is not
+	 * emitted within the attempt timeout.
+	 */
+	private Flux<?> proceedAttemptFlux(InvocationTemplate template, ReactiveReturnType returnType) {
+		AttemptStatistics statistics = this.attemptStatistics;
+		long startNanos = statistics != null ? System.nanoTime() : 0;
+		Flux<?> attempt = proceedFlux(template, returnType);
+		if (this.attemptTimeout != null)
+			attempt = attempt.timeout(this.attemptTimeout, this.timeoutScheduler);
+		if (statistics == null)
+			return attempt;
+		return attempt.doOnComplete(() -> statistics.recordSuccess(System.nanoTime() - startNanos))
+				.doOnError(statistics::recordError);
+	}
+
+	/**
+	 * Adapts the retried call to the return type of the method, waiting for its
+	 * value if the method is blocking. A caller interrupted while waiting gets an
+	 * {@link InterruptedException} with its interrupt status set again.
+	 */
+	Object toReturnValue(ReactiveReturnType returnType, Mono<?> call) throws Throwable {
+		if (!returnType.isBlocking())
+			return returnType.fromPublisher(call);
+		try {
+			return call.block();
+		} catch (RuntimeException ex) {
+			Throwable failure = Exceptions.unwrap(ex);
+			if (failure instanceof InterruptedException)
+				Thread.currentThread().interrupt();
+			throw failure;
+		}
+	}
+
+	<T> Mono<T> overallTimeout(Mono<T> call) {
+		return this.overallTimeout == null ? call : call.timeout(this.overallTimeout, this.timeoutScheduler);
+	}
+
+	private <T> Flux<T> overallTimeout(Flux<T> call) {
+		if (this.overallTimeout == null)
+			return call;
+		Duration timeout = this.overallTimeout;
+		return call.takeUntilOther(Mono.delay(timeout, this.timeoutScheduler).then(Mono.error(
+				() -> new TimeoutException("Did not complete within " + timeout.toMillis() + "ms"))));
+	}
+
+	/**
+	 * Subscribes to the call once it acquires a permit of the call bulkhead, if
+	 * any.
+	 */
+	<T> Mono<T> bulkheadMono(Mono<T> call) {
+		Bulkhead bulkhead = this.callBulkhead;
+		if (bulkhead == null)
+			return call;
+		return bulkhead.limit(call, () -> new BulkheadFullException(this.name, null), error -> true,
+				this.timeoutScheduler);
+	}
+
+	private <T> Flux<T> bulkheadFlux(Flux<T> call) {
+		Bulkhead bulkhead = this.callBulkhead;
+		if (bulkhead == null)
+			return call;
+		return bulkhead.limit(call, () -> new BulkheadFullException(this.name, null), error -> true,
+				this.timeoutScheduler);
+	}
+
+	/**
+	 * Caches the value of the call and serves it when the retries of a later call
+	 * with the same arguments are exhausted or rejected, or the call itself is
+	 * rejected.
+	 */
+	@SuppressWarnings("unchecked")
+	<T> Mono<T> fallbackMono(Mono<T> call, InvocationTemplate template) {
+		LastSuccessCache cache = this.fallbackCache;
+		if (cache == null)
+			return call;
+		Object key = cache.key(template.getInvocation());
+		return call.doOnNext(value -> cache.put(key, value)).onErrorResume(failure -> {
+			if (!(failure instanceof RetryExhaustedException || failure instanceof ReactiveRetryRejectedException))
+				return Mono.error(failure);
+			Throwable cause = failure instanceof RetryExhaustedException ? failure.getCause() : failure;
+			Object value = cache.get(key);
+			this.listener.onFallback(this.name, cause, value != null);
+			return value != null ? Mono.just((T) value) : Mono.error(cause);
+		});
+	}
+
+	/**
+	 * Shares the subscription of the call with the concurrent calls of the same
+	 * key, until it terminates or all of its subscribers cancel.
+	 */
+	@SuppressWarnings("unchecked")
+	<T> Mono<T> coalesceMono(Mono<T> call, InvocationTemplate template) {
+		if (this.coalescingKeyGenerator == null)
+			return call;
+		MethodInvocation invocation = template.getInvocation();
+		Object key = new SimpleKey(invocation.getMethod(), this.coalescingKeyGenerator
+				.generate(invocation.getThis(), invocation.getMethod(), invocation.getArguments()));
+		return Mono.defer(() -> {
+			SharedCall<?> sharedCall = this.sharedCalls.get(key);
+			if (sharedCall != null)
+				return (Mono<T>) sharedCall.mono;
+			SharedCall<T> newCall = new SharedCall<>();
+			newCall.mono = call.doFinally(signalType -> this.sharedCalls.remove(key, newCall)).share();
+			sharedCall = this.sharedCalls.putIfAbsent(key, newCall);
+			return sharedCall != null ? (Mono<T>) sharedCall.mono : newCall.mono;
+		});
+	}
+
+	/**
+	 * Marks the last failure of a call whose retries are exhausted, if a fallback
+	 * cache is set.
+	 */
+	Throwable exhausted(Throwable failure) {
+		return this.fallbackCache != null ? new RetryExhaustedException(failure) : failure;
+	}
+
+	/**
+	 * Resumes the failed call with the result of the recoverer, if any.
+	 */
+	@SuppressWarnings("unchecked")
+	<T> Mono<T> recoverMono(Mono<T> call, InvocationTemplate template, ReactiveReturnType returnType) {
+		if (this.recoverer == null)
+			return call;
+		return call.onErrorResume(failure -> {
+			try {
+				return (Mono<T>) returnType.toMono(this.recoverer.recover(template.getInvocation(), failure));
+			} catch (Throwable t) {
+				return Mono.error(t);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> Flux<T> recoverFlux(Flux<T> call, InvocationTemplate template, ReactiveReturnType returnType) {
+		if (this.recoverer == null)
+			return call;
+		return call.onErrorResume(failure -> {
+			try {
+				return (Flux<T>) returnType.toFlux(this.recoverer.recover(template.getInvocation(), failure));
+			} catch (Throwable t) {
+				return Flux.error(t);
+			}
+		});
+	}
+
+	private Mono<?> proceedMono(InvocationTemplate template, ReactiveReturnType returnType) {
+		if (this.blockingScheduler != null)
+			return proceedBlocking(template).flatMap(returnType::toMono);
+		try {
+			return returnType.toMono(template.proceed());
+		} catch (Throwable t) {
+			return Mono.error(t);
+		}
+	}
+
+	private Flux<?> proceedFlux(InvocationTemplate template, ReactiveReturnType returnType) {
+		if (this.blockingScheduler != null)
+			return proceedBlocking(template).flatMapMany(returnType::toFlux);
+		try {
+			return returnType.toFlux(template.proceed());
+		} catch (Throwable t) {
+			return Flux.error(t);
+		}
+	}
+
+	/**
+	 * Invokes the attempt on the blocking scheduler, so that neither the
+	 * subscribing thread nor the thread of a backoff timer is blocked.
+	 */
+	private Mono<Object> proceedBlocking(InvocationTemplate template) {
+		return Mono.create(sink -> {
+			try {
+				sink.success(template.proceed());
+			} catch (Throwable t) {
+				sink.error(t);
+			}
+		}).subscribeOn(this.blockingScheduler);
+	}
+
+	/**
+	 * The subscription shared by concurrent calls of the same key. It is only
+	 * published through the map of the shared calls, after its mono is set.
+	 */
+	private static final class SharedCall<T> {
+		private Mono<T> mono;
+	}
+
+	/**
+	 * State of a single subscription to a resumed call: the arguments of its
+	 * current attempt and the last element it emitted. The attempts of a call are
+	 * sequential and an attempt is only created once the previous one terminated,
+	 * so the state does not need to be volatile.
+	 */
+	private final class ResumedCall {
+		private InvocationTemplate template;
+
+		private Object lastElement;
+
+		private boolean emitted;
+
+		private ResumedCall(InvocationTemplate template) {
+			this.template = template;
+		}
+
+		/**
+		 * @return the template of the next attempt, resuming after the last element if
+		 *         the previous attempt emitted any
+		 */
+		private InvocationTemplate nextTemplate() {
+			if (this.emitted) {
+				this.template = this.template
+						.withArguments(resumer.resume(this.template.getArguments(), this.lastElement));
+				this.emitted = false;
+			}
+			return this.template;
+		}
+
+		private void onNext(Object element) {
+			this.lastElement = element;
+			this.emitted = true;
+		}
+	}
+
+	/**
+	 * State of a single call observed by the listener, the retry budget, the
+	 * circuit breaker and the retry bulkhead. The attempts of a call are
+	 * sequential, so the state of the previous attempt does not need to be
+	 * volatile. The concurrent attempts of a hedged call must be observed under a
+	 * lock.
+	 */
+	final class ObservedCall {
+		private final long startNanos = System.nanoTime();
+
+		private long failureNanos;
+
+		private boolean failed;
+
+		private Throwable lastFailure;
+
+		private boolean retryPermit;
+
+		private long permission = CircuitBreaker.REJECTED;
+
+		ObservedCall() {
+			retryBudget.onCall();
+			if (callEvents)
+				listener.beforeCall(name);
+		}
+
+		/**
+		 * @return the error to signal instead of subscribing to the attempt, or
+		 *         {@code null} if the attempt is permitted
+		 */
+		Throwable beforeAttempt() {
+			return beforeAttempt(this.failed);
+		}
+
+		/**
+		 * @param retry
+		 *            whether the attempt is a retry, which must acquire a permit of the
+		 *            retry bulkhead
+		 * @return the error to signal instead of subscribing to the attempt, or
+		 *         {@code null} if the attempt is permitted
+		 */
+		Throwable beforeAttempt(boolean retry) {
+			if (this.failed && callEvents)
+				listener.onBackOff(name, System.nanoTime() - this.failureNanos);
+			if (retry && retryBulkhead != null && !this.retryPermit) {
+				if (!retryBulkhead.tryAcquire())
+					return new BulkheadFullException(name, this.lastFailure);
+				this.retryPermit = true;
+			}
+			if (circuitBreaker == null)
+				return null;
+			this.permission = circuitBreaker.tryAcquirePermission();
+			if (this.permission == CircuitBreaker.REJECTED)
+				return new CircuitBreakerOpenException(name, this.lastFailure);
+			return null;
+		}
+
+		/**
+		 * @return the circuit breaker permission of the last permitted attempt, to pass
+		 *         to the callbacks of a concurrent attempt
+		 */
+		long getPermission() {
+			return this.permission;
+		}
+
+		void afterAttemptError(Throwable error) {
+			afterAttemptError(error, this.permission);
+		}
+
+		void afterAttemptError(Throwable error, long permission) {
+			this.failed = true;
+			this.failureNanos = System.nanoTime();
+			this.lastFailure = error;
+			if (circuitBreaker == null)
+				return;
+			if (recordFailure.test(error) && !(error instanceof ReactiveRetryRejectedException))
+				circuitBreaker.onError(permission);
+			else
+				circuitBreaker.releasePermission(permission);
+		}
+
+		void afterAttemptComplete() {
+			afterAttemptComplete(this.permission);
+		}
+
+		void afterAttemptComplete(long permission) {
+			if (circuitBreaker != null)
+				circuitBreaker.onSuccess(permission);
+		}
+
+		void afterAttemptCancel() {
+			afterAttemptCancel(this.permission);
+		}
+
+		void afterAttemptCancel(long permission) {
+			if (circuitBreaker != null)
+				circuitBreaker.releasePermission(permission);
+		}
+
+		void afterCall(SignalType signalType) {
+			if (this.retryPermit)
+				retryBulkhead.release();
+			if (callEvents)
+				listener.afterCall(name, signalType, System.nanoTime() - this.startNanos);
+		}
 	}
 }
@@ -1,10 +1,14 @@
 package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
 
 import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
 import org.aopalliance.intercept.MethodInterceptor;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 import reactor.util.retry.Retry;
 import reactor.util.retry.RetryBackoffSpec;
 import reactor.util.retry.RetrySpec;
@@ -17,12 +21,31 @@ import reactor.util.retry.RetrySpec;
  * @author Mahdi Bohloul
  */
 public abstract class ReactiveRetryInterceptorBuilder<T extends MethodInterceptor> {
-	protected static final Logger log = LoggerFactory.getLogger(ReactiveRetryInterceptorBuilder.class);
+	private static final ReactiveRetryListener DEFAULT_LISTENER = new LoggingReactiveRetryListener();
 	protected long maxAttempts = 3;
 	protected Class<? extends Throwable>[] retryOn = new Class[]{};
 	protected Class<? extends Throwable>[] excludeFromRetryOn = new Class[]{};
-	protected static final String DEFAULT_BEFORE_RETRYING_ERROR_MESSAGE = "Retrying method call, attempt: {}";
-	protected static final String DEFAULT_AFTER_RETRYING_ERROR_MESSAGE = "Retried method call, attempt: {}";
+	protected String name = "default";
+	protected ReactiveRetryListener listener = DEFAULT_LISTENER;
+	protected RetryBudget retryBudget = RetryBudget.UNLIMITED;
+	protected CircuitBreaker circuitBreaker;
+	protected Duration attemptTimeout;
+	protected Duration overallTimeout;
+	protected Predicate<? super Throwable> includePredicate;
+	protected Predicate<? super Throwable> excludePredicate;
+	protected int causeDepth;
+	protected ReactiveRecoverer recoverer;
+	protected LastSuccessCache fallbackCache;
+	protected KeyGenerator coalescingKeyGenerator;
+	protected RetryDelayHint retryDelayHint;
+	protected Duration maxHintedDelay;
+	protected Bulkhead callBulkhead;
+	protected Bulkhead retryBulkhead;
+	protected Bulkhead attemptBulkhead;
+	protected Scheduler scheduler = Schedulers.parallel();
+	protected Scheduler blockingScheduler;
+	protected ReactiveResumer resumer;
+	private ExceptionClassifier exceptionClassifier;
 
 	/**
 	 * Sets the maximum number of attempts that should be made.
@@ -50,6 +73,7 @@ public abstract class ReactiveRetryInterceptorBuilder<T extends MethodIntercepto
 	public ReactiveRetryInterceptorBuilder<T> setInclude(Class<? extends Throwable>[] retryOn) {
 		Assert.notNull(retryOn, "retryOn cannot be null");
 		this.retryOn = retryOn;
+		this.exceptionClassifier = null;
 		return this;
 	}
 
@@ -64,6 +88,358 @@ public abstract class ReactiveRetryInterceptorBuilder<T extends MethodIntercepto
 	public ReactiveRetryInterceptorBuilder<T> setExclude(Class<? extends Throwable>[] excludeFromRetryOn) {
 		Assert.notNull(excludeFromRetryOn, "excludeFromRetryOn cannot be null");
 		this.excludeFromRetryOn = excludeFromRetryOn;
+		this.exceptionClassifier = null;
+		return this;
+	}
+
+	/**
+	 * Sets an additional rule matching the exceptions that should be retried, for
+	 * instance on the status code of an HTTP error. Unlike the type rules, the
+	 * predicate is evaluated on every failure.
+	 *
+	 * @param includePredicate
+	 *            the rule, or {@code null} for none
+	 * @return the builder
+	 * @since 2.0.0
+	 */
+	public ReactiveRetryInterceptorBuilder<T> setIncludePredicate(Predicate<? super Throwable> includePredicate) {
+		this.includePredicate = includePredicate;
+		this.exceptionClassifier = null;
+		return this;
+	}
+
+	/**
+	 * Sets an additional rule matching the exceptions that should not be retried.
+	 * Unlike the type rules, the predicate is evaluated on every failure.
+	 *
+	 * @param excludePredicate
+	 *            the rule, or {@code null} for none
+	 * @return the builder
+	 * @since 2.0.0
+	 */
+	public ReactiveRetryInterceptorBuilder<T> setExcludePredicate(Predicate<? super Throwable> excludePredicate) {
+		this.excludePredicate = excludePredicate;
+		this.exceptionClassifier = null;
+		return this;
+	}
+
+	/**
+	 * Sets how many causes of a failure are classified when the failure itself is
+	 * not matched by the include and exclude rules, for instance to retry an
+	 * included exception wrapped by another one. Defaults to 0.
+	 *
+	 * @param causeDepth
+	 *            the number of causes to classify
+	 * @return the builder
+	 * @since 2.0.0
+	 */
+	public ReactiveRetryInterceptorBuilder<T> setCauseDepth(int causeDepth) {
+		Assert.isTrue(causeDepth >= 0, "causeDepth must be greater than or equal to 0");
+		this.causeDepth = causeDepth;
+		this.exceptionClassifier = null;
+		return this;
+	}
+
+	/**
+	 * Sets the name of the interceptor, passed to the {@link ReactiveRetryListener}
+	 * to identify the retried method.
+	 *
+	 * @param name
+	 *            the name of the interceptor
+	 * @return the builder
+	 * @since 2.0.0
+	 */
+	public ReactiveRetryInterceptorBuilder<T> setName(String name) {
+		Assert.hasText(name, "name cannot be empty");
+		this.name = name;
+		return this;
+	}
+
+	/**
+	 * Sets the listener notified of the retries. Defaults to a
+	 * {@link LoggingReactiveRetryListener} with its default settings.
+	 *
+	 * @param listener
+	 *            the listener notified of the retries
+	 * @return the builder
+	 * @since 2.0.0
+	 */
+	public ReactiveRetryInterceptorBuilder<T> setListener(ReactiveRetryListener listener) {
+		Assert.notNull(listener, "listener cannot be null");
+		this.listener = listener;
+		return this;
+	}
+
+	/**
+	 * Sets the budget consulted before each retry. The same budget can be set on
+	 * several interceptors to share it between a group of methods or the whole
+	 * application. Defaults to {@link RetryBudget#UNLIMITED}.
+	 *
+	 * @param retryBudget
+	 *            the retry budget
+	 * @return the builder
+	 * @since 2.0.0
+	 */
+	public ReactiveRetryInterceptorBuilder<T> setRetryBudget(RetryBudget retryBudget) {
+		Assert.notNull(retryBudget, "retryBudget cannot be null");
+		this.retryBudget = retryBudget;
+		return this;
+	}
+
+	/**
+	 * Sets the circuit breaker consulted before each attempt. While the breaker is
+	 * open, calls fail with a {@link CircuitBreakerOpenException} without
+	 * subscribing to the advised method and failures are not retried. Only the
+	 * errors accepted by the include and exclude filters count as failures of the
+	 * breaker.
+	 *
+	 * @param circuitBreaker
+	 *            the circuit breaker, or {@code null} to disable it
+	 * @return the builder
+	 * @since 2.0.0
+	 */
+	public ReactiveRetryInterceptorBuilder<T> setCircuitBreaker(CircuitBreaker circuitBreaker) {
+		this.circuitBreaker = circuitBreaker;
+		return this;
+	}
+
+	/**
+	 * Sets the timeout of each attempt. An attempt that does not terminate in time
+	 * is cancelled and fails with a {@link java.util.concurrent.TimeoutException
+	 * TimeoutException}, which is retried like any other failure accepted by the
+	 * error filter. For {@code Flux} methods, the timeout applies to the first
+	 * element and to the interval between two elements.
+	 *
+	 * @param attemptTimeout
+	 *            the timeout of each attempt, or {@code null} for none
+	 * @return the builder
+	 * @since 2.0.0
+	 */
+	public ReactiveRetryInterceptorBuilder<T> setAttemptTimeout(Duration attemptTimeout) {
+		Assert.isTrue(attemptTimeout == null || attemptTimeout.compareTo(Duration.ZERO) > 0,
+				"attemptTimeout must be greater than 0");
+		this.attemptTimeout = attemptTimeout;
+		return this;
+	}
+
+	/**
+	 * Sets the deadline of the whole call, including all retries and backoff
+	 * delays. A call that does not terminate in time is cancelled and fails with a
+	 * {@link java.util.concurrent.TimeoutException TimeoutException}.
+	 *
+	 * @param overallTimeout
+	 *            the deadline of the call, or {@code null} for none
+	 * @return the builder
+	 * @since 2.0.0
+	 */
+	public ReactiveRetryInterceptorBuilder<T> setOverallTimeout(Duration overallTimeout) {
+		Assert.isTrue(overallTimeout == null || overallTimeout.compareTo(Duration.ZERO) > 0,
+				"overallTimeout must be greater than 0");
+		this.overallTimeout = overallTimeout;
+		return this;
+	}
+
+	/**
+	 * Sets the recoverer invoked when a call fails, after its retries are exhausted
+	 * or with a failure that is not retried, to return a degraded result instead of
+	 * the failure.
+	 *
+	 * @param recoverer
+	 *            the recoverer, or {@code null} to propagate the failures
+	 * @return the builder
+	 * @since 2.0.0
+	 */
+	public ReactiveRetryInterceptorBuilder<T> setRecoverer(ReactiveRecoverer recoverer) {
+		this.recoverer = recoverer;
+		return this;
+	}
+
+	/**
+	 * Sets the cache of the last successful values of {@code Mono} methods. When
+	 * the retries of a call are exhausted or rejected, the cached value of the same
+	 * arguments is emitted instead of the failure, if it has not expired. The same
+	 * cache can be set on several interceptors.
+	 *
+	 * @param fallbackCache
+	 *            the cache, or {@code null} to propagate the failures
+	 * @return the builder
+	 * @since 2.0.0
+	 */
+	public ReactiveRetryInterceptorBuilder<T> setFallbackCache(LastSuccessCache fallbackCache) {
+		this.fallbackCache = fallbackCache;
+		return this;
+	}
+
+	/**
+	 * Enables the coalescing of the concurrent calls of {@code Mono} methods: a
+	 * call with the same key as a call in flight subscribes to the retrying
+	 * subscription of that call instead of invoking the method, and receives its
+	 * result. The shared subscription is released when it terminates or all of its
+	 * subscribers cancel.
+	 *
+	 * @param coalescingKeyGenerator
+	 *            the generator of the keys of the calls, for instance a
+	 *            {@link org.springframework.cache.interceptor.SimpleKeyGenerator
+	 *            SimpleKeyGenerator} to coalesce the calls with equal arguments, or
+	 *            {@code null} to disable the coalescing
+	 * @return the builder
+	 * @since 2.0.0
+	 */
+	public ReactiveRetryInterceptorBuilder<T> setCoalescing(KeyGenerator coalescingKeyGenerator) {
+		this.coalescingKeyGenerator = coalescingKeyGenerator;
+		return this;
+	}
+
+	/**
+	 * Resumes the retried calls of {@code Flux} methods after the last element they
+	 * emitted: the next attempt is invoked with the arguments computed by the
+	 * resumer from the last element, for instance the offset of the next page, so
+	 * that the elements already emitted are not emitted again. The resumer is only
+	 * called when the failed attempt emitted an element. The calls of {@code Mono}
+	 * methods are retried unchanged.
+	 *
+	 * @param resumer
+	 *            the resumer, or {@code null} to resubscribe to the whole stream
+	 * @return the builder
+	 * @since 2.0.0
+	 */
+	public ReactiveRetryInterceptorBuilder<T> setResumer(ReactiveResumer resumer) {
+		this.resumer = resumer;
+		return this;
+	}
+
+	/**
+	 * Sets the extractor of the delays suggested by the failures, for instance the
+	 * {@code Retry-After} header of an HTTP response. A suggested delay replaces
+	 * the delay of the retry strategy, bounded by the maximum hinted delay and by
+	 * the maximum delay of the backoff strategies. The strategies without a delay
+	 * wait for the suggested delays only.
+	 *
+	 * @param retryDelayHint
+	 *            the delay hint, or {@code null} for none
+	 * @return the builder
+	 * @since 2.0.0
+	 */
+	public ReactiveRetryInterceptorBuilder<T> setRetryDelayHint(RetryDelayHint retryDelayHint) {
+		this.retryDelayHint = retryDelayHint != RetryDelayHint.NONE ? retryDelayHint : null;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum delay waited for a delay suggested by a failure, whatever
+	 * the retry strategy. A longer suggested delay is shortened to it.
+	 *
+	 * @param maxHintedDelay
+	 *            the maximum suggested delay, or {@code null} for none
+	 * @return the builder
+	 * @since 2.0.0
+	 */
+	public ReactiveRetryInterceptorBuilder<T> setMaxHintedDelay(Duration maxHintedDelay) {
+		Assert.isTrue(maxHintedDelay == null || !maxHintedDelay.isNegative(),
+				"maxHintedDelay must be greater than or equal to 0");
+		this.maxHintedDelay = maxHintedDelay;
+		return this;
+	}
+
+	/**
+	 * Sets the bulkhead limiting the concurrent calls, including their retries and
+	 * backoff delays. A call without permit waits for the maximum wait of the
+	 * bulkhead, then fails with a {@link BulkheadFullException}. Coalesced calls
+	 * share a single permit.
+	 *
+	 * @param callBulkhead
+	 *            the bulkhead of the calls, or {@code null} for no limit
+	 * @return the builder
+	 * @since 2.0.0
+	 */
+	public ReactiveRetryInterceptorBuilder<T> setBulkhead(Bulkhead callBulkhead) {
+		this.callBulkhead = callBulkhead;
+		return this;
+	}
+
+	/**
+	 * Sets the bulkhead limiting the concurrent calls that are retrying. A call
+	 * holds a permit from its first retry until it terminates. A retry without
+	 * permit fails the call with a {@link BulkheadFullException} instead of
+	 * waiting, since the waiting call would still hold its resources, so the
+	 * maximum wait of the bulkhead is ignored.
+	 *
+	 * @param retryBulkhead
+	 *            the bulkhead of the retrying calls, or {@code null} for no limit
+	 * @return the builder
+	 * @since 2.0.0
+	 */
+	public ReactiveRetryInterceptorBuilder<T> setRetryBulkhead(Bulkhead retryBulkhead) {
+		this.retryBulkhead = retryBulkhead;
+		return this;
+	}
+
+	/**
+	 * Sets the bulkhead limiting the concurrent attempts, so that the retries and
+	 * the hedges count against the limit like the first attempts. With a
+	 * {@link ConcurrencyLimit}, the limit is adjusted from the latency of the
+	 * attempts and the failures accepted by the error filter, so that the
+	 * concurrency, and therefore the load on the dependency, backs off when it
+	 * degrades. An attempt without permit fails the call with a
+	 * {@link BulkheadFullException}, which is not retried.
+	 *
+	 * @param attemptBulkhead
+	 *            the bulkhead of the attempts, or {@code null} for no limit
+	 * @return the builder
+	 * @since 2.0.0
+	 */
+	public ReactiveRetryInterceptorBuilder<T> setAttemptBulkhead(Bulkhead attemptBulkhead) {
+		this.attemptBulkhead = attemptBulkhead;
+		return this;
+	}
+
+	/**
+	 * Sets the scheduler of the timers of the interceptor: the backoff delays, the
+	 * hedge delays, the timeouts and the waits for a bulkhead permit. The default
+	 * is {@link Schedulers#parallel()}; a {@link TimerWheelScheduler} keeps the
+	 * timers away from the CPU-bound work and holds many pending timers more
+	 * cheaply.
+	 *
+	 * @param scheduler
+	 *            the scheduler of the timers
+	 * @return the builder
+	 * @since 2.0.0
+	 */
+	public ReactiveRetryInterceptorBuilder<T> setScheduler(Scheduler scheduler) {
+		Assert.notNull(scheduler, "scheduler cannot be null");
+		this.scheduler = scheduler;
+		return this;
+	}
+
+	/**
+	 * Sets whether the method blocks, in which case each attempt is invoked on a
+	 * virtual thread, so that a blocking call never blocks the event loop nor a
+	 * timer thread. The methods that do not return a reactive type are then retried
+	 * with the same configuration as the reactive ones: the caller waits, parked,
+	 * for the retried call and gets its value or its last failure.
+	 *
+	 * @param blocking
+	 *            whether the method blocks
+	 * @return the builder
+	 * @since 2.0.0
+	 */
+	public ReactiveRetryInterceptorBuilder<T> setBlocking(boolean blocking) {
+		this.blockingScheduler = blocking ? VirtualThreads.SCHEDULER : null;
+		return this;
+	}
+
+	/**
+	 * Sets the scheduler the attempts of a blocking method are invoked on, see
+	 * {@link #setBlocking(boolean)}.
+	 *
+	 * @param blockingScheduler
+	 *            the scheduler of the attempts, or {@code null} if the method does
+	 *            not block
+	 * @return the builder
+	 * @since 2.0.0
+	 */
+	public ReactiveRetryInterceptorBuilder<T> setBlockingScheduler(Scheduler blockingScheduler) {
+		this.blockingScheduler = blockingScheduler;
 		return this;
 	}
 
@@ -110,25 +486,197 @@ public abstract class ReactiveRetryInterceptorBuilder<T extends MethodIntercepto
 		return new MaxAttemptsRetryInterceptorBuilder();
 	}
 
+	/**
+	 * Static method to get {@link HedgingRetryInterceptorBuilder}
+	 *
+	 * @return the {@link HedgingRetryInterceptorBuilder}
+	 * @since 2.0.0
+	 */
+	public static HedgingRetryInterceptorBuilder hedging() {
+		return new HedgingRetryInterceptorBuilder();
+	}
+
+	/**
+	 * Static method to get {@link PolicyRetryInterceptorBuilder}
+	 *
+	 * @return the {@link PolicyRetryInterceptorBuilder}
+	 * @since 2.0.0
+	 */
+	public static PolicyRetryInterceptorBuilder policy() {
+		return new PolicyRetryInterceptorBuilder();
+	}
+
 	protected boolean errorFilter(Throwable throwable) {
-		for (Class<? extends Throwable> ex : this.excludeFromRetryOn) {
-			if (ex.isAssignableFrom(throwable.getClass()))
-				return false;
-		}
-		if (this.retryOn.length == 0)
-			return true;
+		return exceptionClassifier().test(throwable);
+	}
 
-		for (Class<? extends Throwable> ex : this.retryOn) {
-			if (ex.isAssignableFrom(throwable.getClass()))
-				return true;
+	/**
+	 * Returns the classifier compiled from the include and exclude rules, compiling
+	 * it on first use after a rule changed.
+	 *
+	 * @return the exception classifier
+	 */
+	protected ExceptionClassifier exceptionClassifier() {
+		ExceptionClassifier exceptionClassifier = this.exceptionClassifier;
+		if (exceptionClassifier == null) {
+			exceptionClassifier = new ExceptionClassifier(this.retryOn, this.excludeFromRetryOn,
+					this.includePredicate, this.excludePredicate, this.causeDepth);
+			this.exceptionClassifier = exceptionClassifier;
 		}
-		return false;
+		return exceptionClassifier;
 	}
 
 	protected Throwable unwrapError(Retry spec, Retry.RetrySignal signal) {
 		return signal.failure();
 	}
 
+	protected void beforeRetry(Retry.RetrySignal retrySignal) {
+		this.listener.beforeRetry(this.name, retrySignal);
+	}
+
+	protected void afterRetry(Retry.RetrySignal retrySignal) {
+		this.listener.afterRetry(this.name, retrySignal);
+	}
+
+	/**
+	 * Applies the error filter, the retry budget, the listener hooks and the
+	 * exhaustion handling to the given retry spec.
+	 *
+	 * @param retrySpec
+	 *            the retry spec of the strategy
+	 * @return the configured retry spec
+	 */
+	protected RetrySpec configure(RetrySpec retrySpec) {
+		exceptionClassifier();
+		RetrySpec configured = retrySpec.filter(this::retryable).doBeforeRetryAsync(this::acquireRetry)
+				.doAfterRetry(this::afterRetry).onRetryExhaustedThrow(this::retryExhausted);
+		return this.retryDelayHint == null ? configured : configured.doBeforeRetryAsync(this::hintedDelay);
+	}
+
+	/**
+	 * Applies the error filter, the retry budget, the listener hooks and the
+	 * exhaustion handling to the given retry backoff spec.
+	 *
+	 * @param retryBackoffSpec
+	 *            the retry backoff spec of the strategy
+	 * @return the configured retry backoff spec
+	 */
+	protected RetryBackoffSpec configure(RetryBackoffSpec retryBackoffSpec) {
+		exceptionClassifier();
+		return retryBackoffSpec.filter(this::retryable).doBeforeRetryAsync(this::acquireRetry)
+				.doAfterRetry(this::afterRetry).onRetryExhaustedThrow(this::retryExhausted).scheduler(this.scheduler);
+	}
+
+	/**
+	 * Applies the error filter, the retry budget, the listener hooks and the
+	 * exhaustion handling to the given custom backoff.
+	 *
+	 * @param backOffRetry
+	 *            the custom backoff of the strategy
+	 * @return the configured backoff
+	 */
+	BackOffRetry<?> configure(BackOffRetry<?> backOffRetry) {
+		exceptionClassifier();
+		return backOffRetry.configure(this::retryable, this::acquireRetry, this::afterRetry, this::retryExhausted,
+				this.retryDelayHint, maxHintedDelayNanos());
+	}
+
+	/**
+	 * Applies the name, the listener, the retry budget, the circuit breaker, the
+	 * timeouts, the recoverer, the fallback cache, the coalescing, the bulkheads
+	 * and the resumer to the built interceptor.
+	 *
+	 * @param interceptor
+	 *            the built interceptor
+	 * @param <I>
+	 *            the type of the interceptor
+	 * @return the given interceptor
+	 */
+	protected <I extends ReactiveRetryInterceptor> I configureInterceptor(I interceptor) {
+		interceptor.setListener(this.name, this.listener);
+		interceptor.setRetryBudget(this.retryBudget);
+		if (this.circuitBreaker != null)
+			interceptor.setCircuitBreaker(this.circuitBreaker, this::errorFilter);
+		interceptor.setTimeouts(this.attemptTimeout, this.overallTimeout, this.scheduler);
+		interceptor.setRecoverer(this.recoverer);
+		interceptor.setFallbackCache(this.fallbackCache);
+		interceptor.setCoalescing(this.coalescingKeyGenerator);
+		interceptor.setBulkheads(this.callBulkhead, this.retryBulkhead);
+		interceptor.setAttemptBulkhead(this.attemptBulkhead, this::errorFilter);
+		interceptor.setBlockingScheduler(this.blockingScheduler);
+		interceptor.setResumer(this.resumer);
+		return interceptor;
+	}
+
+	/**
+	 * Whether the given failure may be retried, notifying the listener of the
+	 * failures rejected by the error filter.
+	 *
+	 * @param throwable
+	 *            the failure
+	 * @return {@code true} if the failure may be retried
+	 */
+	protected boolean retryable(Throwable throwable) {
+		if (throwable instanceof ReactiveRetryRejectedException)
+			return false;
+		if (errorFilter(throwable))
+			return true;
+		this.listener.onNonRetryableError(this.name, throwable);
+		return false;
+	}
+
+	/**
+	 * Consults the circuit breaker and the retry budget before the backoff delay.
+	 * An open breaker or an empty budget propagates the original failure instead of
+	 * retrying it.
+	 */
+	private Mono<Void> acquireRetry(Retry.RetrySignal retrySignal) {
+		if ((this.circuitBreaker != null && this.circuitBreaker.getState() == CircuitBreaker.State.OPEN)
+				|| !this.retryBudget.tryAcquire()) {
+			this.listener.onRetryRejected(this.name, retrySignal);
+			return Mono.error(exhausted(retrySignal.failure()));
+		}
+		beforeRetry(retrySignal);
+		return Mono.empty();
+	}
+
+	/**
+	 * Waits for the delay suggested by the failure, if any, before a retry of a
+	 * strategy without backoff.
+	 */
+	private Mono<Void> hintedDelay(Retry.RetrySignal retrySignal) {
+		Duration delay = this.retryDelayHint.getDelay(retrySignal.failure());
+		long delayNanos = delay != null ? Math.min(BackOffRetry.toNanos(delay), maxHintedDelayNanos()) : 0;
+		if (delayNanos == 0)
+			return Mono.empty();
+		return Mono.delay(Duration.ofNanos(delayNanos), this.scheduler).then();
+	}
+
+	private long maxHintedDelayNanos() {
+		return this.maxHintedDelay != null ? BackOffRetry.toNanos(this.maxHintedDelay) : Long.MAX_VALUE;
+	}
+
+	private Throwable retryExhausted(Retry spec, Retry.RetrySignal signal) {
+		this.listener.onRetryExhausted(this.name, signal);
+		return exhausted(unwrapError(spec, signal));
+	}
+
+	/**
+	 * Marks the last failure of a call for the fallback cache, if any.
+	 */
+	private Throwable exhausted(Throwable failure) {
+		return this.fallbackCache != null ? new RetryExhaustedException(failure) : failure;
+	}
+
+	/**
+	 * Holder of the scheduler of the blocking attempts, created on first use. A
+	 * virtual thread is started for each attempt and is not pooled.
+	 */
+	private static final class VirtualThreads {
+		private static final Scheduler SCHEDULER = Schedulers
+				.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "reactive-retry-virtual");
+	}
+
 	/**
 	 * Builder for max attempts retry interceptor.
 	 *
@@ -140,13 +688,8 @@ public abstract class ReactiveRetryInterceptorBuilder<T extends MethodIntercepto
 
 		@Override
 		public MaxAttemptsReactiveRetryInterceptor build() {
-			RetrySpec retrySpec = Retry.max(this.maxAttempts)
-					.doBeforeRetry(retrySignal -> log.error(DEFAULT_BEFORE_RETRYING_ERROR_MESSAGE,
-							retrySignal.totalRetries(), retrySignal.failure()))
-					.doAfterRetry(retrySignal -> log.error(DEFAULT_AFTER_RETRYING_ERROR_MESSAGE,
-							retrySignal.totalRetries(), retrySignal.failure()))
-					.filter(this::errorFilter).onRetryExhaustedThrow(this::unwrapError);
-			return new MaxAttemptsReactiveRetryInterceptor(retrySpec);
+			RetrySpec retrySpec = configure(Retry.max(this.maxAttempts));
+			return configureInterceptor(new MaxAttemptsReactiveRetryInterceptor(retrySpec));
 		}
 
 		@Override
@@ -183,13 +726,12 @@ public abstract class ReactiveRetryInterceptorBuilder<T extends MethodIntercepto
 
 		@Override
 		public FixedDelayReactiveRetryInterceptor build() {
-			RetryBackoffSpec retrySpec = Retry.fixedDelay(this.maxAttempts, Duration.ofMillis(this.fixedDelay))
-					.doBeforeRetry(retrySignal -> log.error(DEFAULT_BEFORE_RETRYING_ERROR_MESSAGE,
-							retrySignal.totalRetries(), retrySignal.failure()))
-					.doAfterRetry(retrySignal -> log.error(DEFAULT_AFTER_RETRYING_ERROR_MESSAGE,
-							retrySignal.totalRetries(), retrySignal.failure()))
-					.filter(this::errorFilter).onRetryExhaustedThrow(this::unwrapError);
-			return new FixedDelayReactiveRetryInterceptor(retrySpec);
+			if (this.retryDelayHint != null)
+				return configureInterceptor(new FixedDelayReactiveRetryInterceptor(configure(new FixedDelayRetry(
+						this.maxAttempts, Duration.ofMillis(this.fixedDelay).toNanos(), this.scheduler))));
+			RetryBackoffSpec retrySpec = configure(
+					Retry.fixedDelay(this.maxAttempts, Duration.ofMillis(this.fixedDelay)));
+			return configureInterceptor(new FixedDelayReactiveRetryInterceptor(retrySpec));
 		}
 
 		@Override
@@ -213,6 +755,8 @@ public abstract class ReactiveRetryInterceptorBuilder<T extends MethodIntercepto
 		}
 
 		public ReactiveRetryInterceptorBuilder<FixedDelayReactiveRetryInterceptor> setFixedDelay(long fixedDelay) {
+			if (fixedDelay < 0)
+				throw new IllegalArgumentException("fixedDelay must be greater than or equal to 0");
 			this.fixedDelay = fixedDelay;
 			return this;
 		}
@@ -228,13 +772,8 @@ public abstract class ReactiveRetryInterceptorBuilder<T extends MethodIntercepto
 				ReactiveRetryInterceptorBuilder<MaxInRowReactiveRetryInterceptor> {
 		@Override
 		public MaxInRowReactiveRetryInterceptor build() {
-			RetrySpec retrySpec = Retry.maxInARow(this.maxAttempts)
-					.doBeforeRetry(retrySignal -> log.error(DEFAULT_BEFORE_RETRYING_ERROR_MESSAGE,
-							retrySignal.totalRetries(), retrySignal.failure()))
-					.doAfterRetry(retrySignal -> log.error(DEFAULT_AFTER_RETRYING_ERROR_MESSAGE,
-							retrySignal.totalRetries(), retrySignal.failure()))
-					.filter(this::errorFilter).onRetryExhaustedThrow(this::unwrapError);
-			return new MaxInRowReactiveRetryInterceptor(retrySpec);
+			RetrySpec retrySpec = configure(Retry.maxInARow(this.maxAttempts));
+			return configureInterceptor(new MaxInRowReactiveRetryInterceptor(retrySpec));
 		}
 
 		@Override
@@ -266,19 +805,27 @@ public abstract class ReactiveRetryInterceptorBuilder<T extends MethodIntercepto
 	public static class BackOffRetryInterceptorBuilder
 			extends
 				ReactiveRetryInterceptorBuilder<BackOffReactiveRetryInterceptor> {
+		private static final Duration DEFAULT_MIN_DELAY = Duration.ofMillis(100);
+
+		private static final double DEFAULT_JITTER = 0.5;
+
 		private long minDelay = -1;
 		private long maxDelay = -1;
 		private double backOffFactor = -1.0;
+		private boolean adaptive;
+		private BackOffAlgorithm algorithm = BackOffAlgorithm.EXPONENTIAL;
 
 		@Override
 		public BackOffReactiveRetryInterceptor build() {
-			RetryBackoffSpec retryBackoffSpec = Retry.backoff(this.maxAttempts, Duration.ofMillis(100))
-					.filter(this::errorFilter)
-					.doBeforeRetry(retrySignal -> log.error(DEFAULT_BEFORE_RETRYING_ERROR_MESSAGE,
-							retrySignal.totalRetries(), retrySignal.failure()))
-					.doAfterRetry(retrySignal -> log.error(DEFAULT_AFTER_RETRYING_ERROR_MESSAGE,
-							retrySignal.totalRetries(), retrySignal.failure()))
-					.onRetryExhaustedThrow(this::unwrapError);
+			if (this.minDelay > 0 && this.maxDelay > 0 && this.minDelay > this.maxDelay)
+				throw new IllegalArgumentException("minDelay must be less than or equal to maxDelay");
+			if (this.backOffFactor > 1)
+				throw new IllegalArgumentException("backOffFactor must be between 0 and 1");
+			if (this.adaptive)
+				return buildAdaptive();
+			if (this.algorithm != BackOffAlgorithm.EXPONENTIAL || this.retryDelayHint != null)
+				return buildAlgorithm();
+			RetryBackoffSpec retryBackoffSpec = configure(Retry.backoff(this.maxAttempts, DEFAULT_MIN_DELAY));
 			if (this.minDelay > 0)
 				retryBackoffSpec = retryBackoffSpec.minBackoff(Duration.ofMillis(this.minDelay));
 			if (this.maxDelay > 0)
@@ -286,7 +833,38 @@ public abstract class ReactiveRetryInterceptorBuilder<T extends MethodIntercepto
 			if (this.backOffFactor > 0)
 				retryBackoffSpec = retryBackoffSpec.jitter(this.backOffFactor);
 
-			return new BackOffReactiveRetryInterceptor(retryBackoffSpec);
+			return configureInterceptor(new BackOffReactiveRetryInterceptor(retryBackoffSpec));
+		}
+
+		private BackOffReactiveRetryInterceptor buildAlgorithm() {
+			long baseDelayNanos = (this.minDelay > 0 ? Duration.ofMillis(this.minDelay) : DEFAULT_MIN_DELAY).toNanos();
+			long maxDelayNanos = this.maxDelay > 0 ? Duration.ofMillis(this.maxDelay).toNanos() : Long.MAX_VALUE;
+			return configureInterceptor(new BackOffReactiveRetryInterceptor(configure(new AlgorithmBackOffRetry(
+					this.algorithm, this.maxAttempts, baseDelayNanos, maxDelayNanos, jitter(), this.scheduler))));
+		}
+
+		/**
+		 * The jitter factor of the algorithms. The exponential backoff defaults to the
+		 * jitter of the backoff spec of Reactor, so that its delays do not change when
+		 * it is built as an algorithm to honor the delay hints.
+		 */
+		private double jitter() {
+			if (this.backOffFactor > 0)
+				return this.backOffFactor;
+			return this.algorithm == BackOffAlgorithm.EXPONENTIAL ? DEFAULT_JITTER : 0;
+		}
+
+		private BackOffReactiveRetryInterceptor buildAdaptive() {
+			AttemptStatistics statistics = new AttemptStatistics(this::errorFilter);
+			long minDelayNanos = this.minDelay > 0 ? Duration.ofMillis(this.minDelay).toNanos() : 0;
+			long maxDelayNanos = this.maxDelay > 0 ? Duration.ofMillis(this.maxDelay).toNanos() : Long.MAX_VALUE;
+			long initialDelayNanos = Math.max(minDelayNanos, DEFAULT_MIN_DELAY.toNanos());
+			BackOffReactiveRetryInterceptor interceptor = configureInterceptor(
+					new BackOffReactiveRetryInterceptor(configure(new AdaptiveBackOffRetry(this.maxAttempts,
+							initialDelayNanos, minDelayNanos, maxDelayNanos, Math.max(this.backOffFactor, 0),
+							statistics, this.scheduler))));
+			interceptor.setAttemptStatistics(statistics);
+			return interceptor;
 		}
 
 		public BackOffRetryInterceptorBuilder setMinDelay(long minDelay) {
@@ -304,6 +882,39 @@ public abstract class ReactiveRetryInterceptorBuilder<T extends MethodIntercepto
 			return this;
 		}
 
+		/**
+		 * Sets whether the delays adapt to the observed behaviour of the method. The
+		 * base delay is then the median latency of the successful attempts instead of
+		 * the minimum delay, and it is scaled up with the recent failure rate of the
+		 * attempts, still bounded by the minimum and maximum delays.
+		 *
+		 * @param adaptive
+		 *            whether the backoff is adaptive
+		 * @return the builder
+		 * @since 2.0.0
+		 */
+		public BackOffRetryInterceptorBuilder setAdaptive(boolean adaptive) {
+			this.adaptive = adaptive;
+			return this;
+		}
+
+		/**
+		 * Sets the algorithm of the delays, see {@link BackOffAlgorithm}. The backoff
+		 * factor only applies to the exponential and Fibonacci algorithms, the other
+		 * algorithms have their own jitter. Ignored if the backoff is adaptive.
+		 * Defaults to {@link BackOffAlgorithm#EXPONENTIAL}.
+		 *
+		 * @param algorithm
+		 *            the backoff algorithm
+		 * @return the builder
+		 * @since 2.0.0
+		 */
+		public BackOffRetryInterceptorBuilder setAlgorithm(BackOffAlgorithm algorithm) {
+			Assert.notNull(algorithm, "algorithm cannot be null");
+			this.algorithm = algorithm;
+			return this;
+		}
+
 		@Override
 		public ReactiveRetryInterceptorBuilder<BackOffReactiveRetryInterceptor> setInclude(
 				Class<? extends Throwable>[] retryOn) {
@@ -324,4 +935,165 @@ public abstract class ReactiveRetryInterceptorBuilder<T extends MethodIntercepto
 			return this;
 		}
 	}
+
+	/**
+	 * Builder for policy retry interceptor. The maximum attempts and the delays are
+	 * read from the named policy of the registry on each call, the other settings
+	 * are fixed when the interceptor is built.
+	 *
+	 * @author Mahdi Bohloul
+	 * @since 2.0.0
+	 */
+	public static class PolicyRetryInterceptorBuilder
+			extends
+				ReactiveRetryInterceptorBuilder<PolicyReactiveRetryInterceptor> {
+		private ReactiveRetryPolicyRegistry policyRegistry;
+		private String policyName;
+
+		@Override
+		public PolicyReactiveRetryInterceptor build() {
+			if (this.policyRegistry == null)
+				throw new IllegalArgumentException("policy must be set");
+			if (this.policyRegistry.getPolicy(this.policyName) == null)
+				throw new IllegalArgumentException("No retry policy named '" + this.policyName + "'");
+			return configureInterceptor(new PolicyReactiveRetryInterceptor(
+					new PolicyRetry(this.policyRegistry, this.policyName, this::retrySpec)));
+		}
+
+		/**
+		 * Sets the policy of the interceptor.
+		 *
+		 * @param policyRegistry
+		 *            the registry of the policy
+		 * @param policyName
+		 *            the name of the policy, registered before the interceptor is built
+		 * @return the builder
+		 */
+		public PolicyRetryInterceptorBuilder setPolicy(ReactiveRetryPolicyRegistry policyRegistry,
+				String policyName) {
+			Assert.notNull(policyRegistry, "policyRegistry cannot be null");
+			Assert.hasText(policyName, "policyName cannot be empty");
+			this.policyRegistry = policyRegistry;
+			this.policyName = policyName;
+			return this;
+		}
+
+		@Override
+		public ReactiveRetryInterceptorBuilder<PolicyReactiveRetryInterceptor> setInclude(
+				Class<? extends Throwable>[] retryOn) {
+			super.setInclude(retryOn);
+			return this;
+		}
+
+		@Override
+		public ReactiveRetryInterceptorBuilder<PolicyReactiveRetryInterceptor> setExclude(
+				Class<? extends Throwable>[] excludeFromRetryOn) {
+			super.setExclude(excludeFromRetryOn);
+			return this;
+		}
+
+		private Retry retrySpec(ReactiveRetryPolicy policy) {
+			if (policy.getMinDelay().isZero())
+				return configure(Retry.max(policy.getMaxAttempts()));
+			long minDelayNanos = BackOffRetry.toNanos(policy.getMinDelay());
+			if (policy.getMinDelay().equals(policy.getMaxDelay()))
+				return configure(new FixedDelayRetry(policy.getMaxAttempts(), minDelayNanos, this.scheduler));
+			return configure(new AlgorithmBackOffRetry(BackOffAlgorithm.EXPONENTIAL, policy.getMaxAttempts(),
+					minDelayNanos, BackOffRetry.toNanos(policy.getMaxDelay()), policy.getJitter(),
+					this.scheduler));
+		}
+	}
+
+	/**
+	 * Builder for hedging retry interceptor.
+	 *
+	 * @author Mahdi Bohloul
+	 * @since 2.0.0
+	 */
+	public static class HedgingRetryInterceptorBuilder
+			extends
+				ReactiveRetryInterceptorBuilder<HedgingReactiveRetryInterceptor> {
+		private long hedgeDelay = -1;
+		private double hedgeDelayPercentile = -1.0;
+		private int maxHedges = 1;
+
+		@Override
+		public HedgingReactiveRetryInterceptor build() {
+			if (this.hedgeDelay < 0 && this.hedgeDelayPercentile < 0)
+				throw new IllegalArgumentException("hedgeDelay or hedgeDelayPercentile must be set");
+			RetrySpec retrySpec = configure(Retry.max(this.maxAttempts));
+			LatencyPercentile latencyPercentile = this.hedgeDelayPercentile > 0
+					? new LatencyPercentile(this.hedgeDelayPercentile)
+					: null;
+			long hedgeDelayNanos = this.hedgeDelay >= 0 ? Duration.ofMillis(this.hedgeDelay).toNanos() : -1;
+			return configureInterceptor(new HedgingReactiveRetryInterceptor(retrySpec, hedgeDelayNanos,
+					latencyPercentile, this.maxHedges, this::retryable, this.scheduler));
+		}
+
+		/**
+		 * Sets the delay, in milliseconds, after which an attempt that has not emitted
+		 * is hedged. If a percentile is set too, this delay is used until enough
+		 * latencies are observed.
+		 *
+		 * @param hedgeDelay
+		 *            the hedge delay in milliseconds
+		 * @return the builder
+		 */
+		public HedgingRetryInterceptorBuilder setHedgeDelay(long hedgeDelay) {
+			if (hedgeDelay < 0)
+				throw new IllegalArgumentException("hedgeDelay must be greater than or equal to 0");
+			this.hedgeDelay = hedgeDelay;
+			return this;
+		}
+
+		/**
+		 * Sets the percentile of the observed latency of the successful attempts used
+		 * as the hedge delay, for instance {@code 95} to hedge the slowest 5% of the
+		 * attempts.
+		 *
+		 * @param hedgeDelayPercentile
+		 *            the percentile, between 0 and 100 exclusive
+		 * @return the builder
+		 */
+		public HedgingRetryInterceptorBuilder setHedgeDelayPercentile(double hedgeDelayPercentile) {
+			if (hedgeDelayPercentile <= 0 || hedgeDelayPercentile >= 100)
+				throw new IllegalArgumentException("hedgeDelayPercentile must be between 0 and 100 exclusive");
+			this.hedgeDelayPercentile = hedgeDelayPercentile;
+			return this;
+		}
+
+		/**
+		 * Sets the maximum number of attempts started in addition to the first one.
+		 *
+		 * @param maxHedges
+		 *            the maximum number of hedges
+		 * @return the builder
+		 */
+		public HedgingRetryInterceptorBuilder setMaxHedges(int maxHedges) {
+			if (maxHedges < 1)
+				throw new IllegalArgumentException("maxHedges must be greater than 0");
+			this.maxHedges = maxHedges;
+			return this;
+		}
+
+		@Override
+		public ReactiveRetryInterceptorBuilder<HedgingReactiveRetryInterceptor> setInclude(
+				Class<? extends Throwable>[] retryOn) {
+			super.setInclude(retryOn);
+			return this;
+		}
+
+		@Override
+		public ReactiveRetryInterceptorBuilder<HedgingReactiveRetryInterceptor> setExclude(
+				Class<? extends Throwable>[] excludeFromRetryOn) {
+			super.setExclude(excludeFromRetryOn);
+			return this;
+		}
+
+		@Override
+		public ReactiveRetryInterceptorBuilder<HedgingReactiveRetryInterceptor> setMaxAttempts(long maxAttempts) {
+			super.setMaxAttempts(maxAttempts);
+			return this;
+		}
+	}
 }
@@ -0,0 +1,149 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import reactor.core.publisher.SignalType;
+import reactor.util.retry.Retry;
+
+/**
+ * Listener notified of the retries performed by a
+ * {@link ReactiveRetryInterceptor}. Implementations are called on the thread
+ * that signals the failure, for every retry of every advised method, so they
+ * should be cheap and must not block.
+ * <p>
+ * The call events, {@link #beforeCall}, {@link #afterCall} and
+ * {@link #onBackOff}, require the interceptor to track every call, so they are
+ * only emitted to listeners that return {@code true} from
+ * {@link #supportsCallEvents()}.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+public interface ReactiveRetryListener {
+
+	/**
+	 * Listener that ignores all events.
+	 */
+	ReactiveRetryListener NOOP = new ReactiveRetryListener() {
+	};
+
+	/**
+	 * Called before a failed invocation is retried, and before the backoff delay if
+	 * any.
+	 *
+	 * @param name
+	 *            the name of the interceptor, the signature of the advised method
+	 *            for annotation based interceptors
+	 * @param retrySignal
+	 *            the failure that triggered the retry
+	 */
+	default void beforeRetry(String name, Retry.RetrySignal retrySignal) {
+	}
+
+	/**
+	 * Called after the backoff delay, right before the invocation is retried.
+	 *
+	 * @param name
+	 *            the name of the interceptor, the signature of the advised method
+	 *            for annotation based interceptors
+	 * @param retrySignal
+	 *            the failure that triggered the retry
+	 */
+	default void afterRetry(String name, Retry.RetrySignal retrySignal) {
+	}
+
+	/**
+	 * Called when a call of the advised method is subscribed to, before its first
+	 * attempt. Only emitted if {@link #supportsCallEvents()} returns {@code true}.
+	 *
+	 * @param name
+	 *            the name of the interceptor
+	 */
+	default void beforeCall(String name) {
+	}
+
+	/**
+	 * Called when a call terminates, after all of its attempts. Only emitted if
+	 * {@link #supportsCallEvents()} returns {@code true}.
+	 *
+	 * @param name
+	 *            the name of the interceptor
+	 * @param signalType
+	 *            how the call terminated, {@link SignalType#ON_COMPLETE},
+	 *            {@link SignalType#ON_ERROR} or {@link SignalType#CANCEL}
+	 * @param durationNanos
+	 *            the duration of the call including all retries and backoff delays
+	 */
+	default void afterCall(String name, SignalType signalType, long durationNanos) {
+	}
+
+	/**
+	 * Called when a retry attempt starts, with the time elapsed since the previous
+	 * attempt failed. Only emitted if {@link #supportsCallEvents()} returns
+	 * {@code true}.
+	 *
+	 * @param name
+	 *            the name of the interceptor
+	 * @param delayNanos
+	 *            the time spent between the failure and the retry
+	 */
+	default void onBackOff(String name, long delayNanos) {
+	}
+
+	/**
+	 * Called when a failure is not retried because all attempts are used.
+	 *
+	 * @param name
+	 *            the name of the interceptor
+	 * @param retrySignal
+	 *            the last failure
+	 */
+	default void onRetryExhausted(String name, Retry.RetrySignal retrySignal) {
+	}
+
+	/**
+	 * Called when a failure is not retried because the retry is rejected by an open
+	 * {@link CircuitBreaker} or an empty {@link RetryBudget}. The failure is
+	 * propagated as is.
+	 *
+	 * @param name
+	 *            the name of the interceptor
+	 * @param retrySignal
+	 *            the rejected failure
+	 */
+	default void onRetryRejected(String name, Retry.RetrySignal retrySignal) {
+	}
+
+	/**
+	 * Called when the retries of a call are exhausted or rejected and the call
+	 * falls back to the {@link LastSuccessCache}.
+	 *
+	 * @param name
+	 *            the name of the interceptor
+	 * @param failure
+	 *            the last failure of the call
+	 * @param hit
+	 *            whether a cached value is emitted instead of the failure
+	 */
+	default void onFallback(String name, Throwable failure, boolean hit) {
+	}
+
+	/**
+	 * Called when a failure is not retried because the error filter rejects it.
+	 *
+	 * @param name
+	 *            the name of the interceptor
+	 * @param failure
+	 *            the rejected failure
+	 */
+	default void onNonRetryableError(String name, Throwable failure) {
+	}
+
+	/**
+	 * Whether this listener should receive the call events.
+	 *
+	 * @return {@code true} to receive {@link #beforeCall}, {@link #afterCall} and
+	 *         {@link #onBackOff}, {@code false} by default
+	 */
+	default boolean supportsCallEvents() {
+		return false;
+	}
+}
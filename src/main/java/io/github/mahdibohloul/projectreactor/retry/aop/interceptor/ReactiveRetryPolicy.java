@@ -0,0 +1,107 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import java.time.Duration;
+import org.springframework.util.Assert;
+
+/**
+ * Immutable settings of a named retry policy, see
+ * {@link ReactiveRetryPolicyRegistry}.
+ * <p>
+ * Without a minimum delay, the failures are retried immediately. With equal
+ * minimum and maximum delays, they are retried after that fixed delay,
+ * otherwise after an exponential backoff between the two delays.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+public final class ReactiveRetryPolicy {
+	private final long maxAttempts;
+
+	private final Duration minDelay;
+
+	private final Duration maxDelay;
+
+	private final double jitter;
+
+	/**
+	 * Create a new policy.
+	 *
+	 * @param maxAttempts
+	 *            the maximum number of retries
+	 * @param minDelay
+	 *            the delay before the first retry, {@link Duration#ZERO} to retry
+	 *            immediately
+	 * @param maxDelay
+	 *            the maximum delay between two retries, at least the minimum delay
+	 * @param jitter
+	 *            the jitter factor of the exponential backoff, between 0 and 1
+	 */
+	public ReactiveRetryPolicy(long maxAttempts, Duration minDelay, Duration maxDelay, double jitter) {
+		Assert.isTrue(maxAttempts > 0, "maxAttempts must be greater than 0");
+		Assert.isTrue(minDelay != null && !minDelay.isNegative(), "minDelay must be greater than or equal to 0");
+		Assert.isTrue(maxDelay != null && maxDelay.compareTo(minDelay) >= 0,
+				"maxDelay must be greater than or equal to minDelay");
+		Assert.isTrue(jitter >= 0 && jitter <= 1, "jitter must be between 0 and 1");
+		this.maxAttempts = maxAttempts;
+		this.minDelay = minDelay;
+		this.maxDelay = maxDelay;
+		this.jitter = jitter;
+	}
+
+	/**
+	 * @param maxAttempts
+	 *            the maximum number of retries
+	 * @return a policy retrying immediately
+	 */
+	public static ReactiveRetryPolicy maxAttempts(long maxAttempts) {
+		return new ReactiveRetryPolicy(maxAttempts, Duration.ZERO, Duration.ZERO, 0);
+	}
+
+	/**
+	 * @param maxAttempts
+	 *            the maximum number of retries
+	 * @param delay
+	 *            the delay before each retry
+	 * @return a policy retrying after a fixed delay
+	 */
+	public static ReactiveRetryPolicy fixedDelay(long maxAttempts, Duration delay) {
+		return new ReactiveRetryPolicy(maxAttempts, delay, delay, 0);
+	}
+
+	/**
+	 * @param maxAttempts
+	 *            the maximum number of retries
+	 * @param minDelay
+	 *            the delay before the first retry
+	 * @param maxDelay
+	 *            the maximum delay between two retries
+	 * @param jitter
+	 *            the jitter factor, between 0 and 1
+	 * @return a policy retrying after an exponential backoff
+	 */
+	public static ReactiveRetryPolicy backOff(long maxAttempts, Duration minDelay, Duration maxDelay, double jitter) {
+		return new ReactiveRetryPolicy(maxAttempts, minDelay, maxDelay, jitter);
+	}
+
+	public long getMaxAttempts() {
+		return this.maxAttempts;
+	}
+
+	public Duration getMinDelay() {
+		return this.minDelay;
+	}
+
+	public Duration getMaxDelay() {
+		return this.maxDelay;
+	}
+
+	public double getJitter() {
+		return this.jitter;
+	}
+
+	@Override
+	public String toString() {
+		return "ReactiveRetryPolicy[maxAttempts=" + this.maxAttempts + ", minDelay=" + this.minDelay.toMillis()
+				+ "ms, maxDelay=" + this.maxDelay.toMillis() + "ms, jitter=" + this.jitter + "]";
+	}
+}
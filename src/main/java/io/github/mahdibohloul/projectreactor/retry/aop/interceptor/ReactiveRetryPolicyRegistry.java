@@ -0,0 +1,95 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.core.env.PropertyResolver;
+import org.springframework.util.Assert;
+
+/**
+ * Registry of named {@link ReactiveRetryPolicy retry policies} that can be
+ * replaced at runtime, for instance to lower the retries of a group of methods
+ * during an incident.
+ * <p>
+ * The interceptors built with {@link ReactiveRetryInterceptorBuilder#policy()}
+ * look their policy up on each call, without locking, and apply a replaced
+ * policy to the calls that start after the replacement. The policies can be
+ * replaced programmatically, with {@link #setPolicy(String,
+ * ReactiveRetryPolicy)}, or from the environment, with
+ * {@link #refresh(PropertyResolver)}, for instance from a listener of the
+ * environment change events of the application.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+public class ReactiveRetryPolicyRegistry {
+	/**
+	 * The prefix of the properties of the policies read by
+	 * {@link #refresh(PropertyResolver)}, followed by the name of the policy and
+	 * one of {@code max-attempts}, {@code min-delay}, {@code max-delay}, in
+	 * milliseconds, and {@code jitter}.
+	 */
+	public static final String PROPERTY_PREFIX = "reactive.retry.policies.";
+
+	private final ConcurrentMap<String, ReactiveRetryPolicy> policies = new ConcurrentHashMap<>();
+
+	/**
+	 * Registers the given policy, replacing the policy of the same name if any.
+	 *
+	 * @param name
+	 *            the name of the policy
+	 * @param policy
+	 *            the policy
+	 */
+	public void setPolicy(String name, ReactiveRetryPolicy policy) {
+		Assert.hasText(name, "name cannot be empty");
+		Assert.notNull(policy, "policy cannot be null");
+		this.policies.put(name, policy);
+	}
+
+	/**
+	 * @param name
+	 *            the name of the policy
+	 * @return the policy, or {@code null} if none is registered with that name
+	 */
+	public ReactiveRetryPolicy getPolicy(String name) {
+		return this.policies.get(name);
+	}
+
+	/**
+	 * @return the names of the registered policies
+	 */
+	public Set<String> getPolicyNames() {
+		return Set.copyOf(this.policies.keySet());
+	}
+
+	/**
+	 * Replaces the registered policies with the settings of the given properties,
+	 * see {@link #PROPERTY_PREFIX}. A setting without a property keeps its current
+	 * value.
+	 *
+	 * @param propertyResolver
+	 *            the resolver of the properties, usually the environment
+	 * @throws IllegalArgumentException
+	 *             if the settings of a policy are invalid, the policies are then
+	 *             left unchanged
+	 */
+	public void refresh(PropertyResolver propertyResolver) {
+		Assert.notNull(propertyResolver, "propertyResolver cannot be null");
+		Map<String, ReactiveRetryPolicy> refreshed = new HashMap<>();
+		this.policies.forEach((name, policy) -> {
+			String prefix = PROPERTY_PREFIX + name + ".";
+			refreshed.put(name, new ReactiveRetryPolicy(
+					propertyResolver.getProperty(prefix + "max-attempts", Long.class, policy.getMaxAttempts()),
+					Duration.ofMillis(propertyResolver.getProperty(prefix + "min-delay", Long.class,
+							policy.getMinDelay().toMillis())),
+					Duration.ofMillis(propertyResolver.getProperty(prefix + "max-delay", Long.class,
+							policy.getMaxDelay().toMillis())),
+					propertyResolver.getProperty(prefix + "jitter", Double.class, policy.getJitter())));
+		});
+		this.policies.putAll(refreshed);
+	}
+}
@@ -0,0 +1,25 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+/**
+ * Base class of the exceptions signalled when a
+ * {@link ReactiveRetryInterceptor} rejects a call without subscribing to the
+ * advised method. These exceptions are never retried and do not fill in their
+ * stack trace, since they are expected to be signalled at a high rate while a
+ * dependency is unavailable.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+public class ReactiveRetryRejectedException extends RuntimeException {
+	/**
+	 * Create a new rejected exception.
+	 *
+	 * @param message
+	 *            the detail message
+	 * @param cause
+	 *            the failure of the previous attempt, if any
+	 */
+	public ReactiveRetryRejectedException(String message, Throwable cause) {
+		super(message, cause, false, false);
+	}
+}
@@ -0,0 +1,125 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ReactiveAdapter;
+import org.springframework.core.ReactiveAdapterRegistry;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The reactive type returned by a retried method, resolved once per method.
+ * {@link Mono} and {@link Flux} are retried as they are, the other types
+ * registered in the {@link ReactiveAdapterRegistry}, such as {@link Publisher},
+ * RxJava or Kotlin {@code Flow} types, are adapted to a {@code Mono} or a
+ * {@code Flux} for the retry and back to the declared type.
+ * <p>
+ * Types that are not deferred, such as {@code CompletableFuture}, and types the
+ * adapter cannot produce, such as {@code ParallelFlux} or a subclass of
+ * {@code Mono}, are not reactive for the retry and the method is invoked
+ * without retry, unless the interceptor runs the blocking methods on a
+ * scheduler. The result of a blocking method is then retried as the value of a
+ * {@code Mono}, and the caller waits for it.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+final class ReactiveReturnType {
+	private static final Map<Method, ReactiveReturnType> CACHE = new ConcurrentReferenceHashMap<>(64);
+
+	private final Method method;
+
+	private final boolean reactive;
+
+	private final boolean singleValue;
+
+	private final ReactiveAdapter adapter;
+
+	private final boolean blocking;
+
+	private ReactiveReturnType(Method method, boolean reactive, boolean singleValue, ReactiveAdapter adapter,
+			boolean blocking) {
+		this.method = method;
+		this.reactive = reactive;
+		this.singleValue = singleValue;
+		this.adapter = adapter;
+		this.blocking = blocking;
+	}
+
+	static ReactiveReturnType of(Method method) {
+		ReactiveReturnType returnType = CACHE.get(method);
+		if (returnType == null)
+			returnType = CACHE.computeIfAbsent(method, ReactiveReturnType::resolve);
+		return returnType;
+	}
+
+	/**
+	 * @return the return type of a method that is not reactive, retried as a
+	 *         blocking call
+	 */
+	static ReactiveReturnType blocking(Method method) {
+		return new ReactiveReturnType(method, true, true, null, true);
+	}
+
+	private static ReactiveReturnType resolve(Method method) {
+		Class<?> type = method.getReturnType();
+		if (type == Mono.class)
+			return new ReactiveReturnType(method, true, true, null, false);
+		if (type == Flux.class)
+			return new ReactiveReturnType(method, true, false, null, false);
+		ReactiveAdapter adapter = ReactiveAdapterRegistry.getSharedInstance().getAdapter(type);
+		if (adapter == null || !adapter.isDeferred() || !type.isAssignableFrom(adapter.getReactiveType()))
+			return new ReactiveReturnType(method, false, false, null, false);
+		return new ReactiveReturnType(method, true, !adapter.isMultiValue(), adapter, false);
+	}
+
+	Method getMethod() {
+		return this.method;
+	}
+
+	/**
+	 * @return whether the method returns a type that can be retried
+	 */
+	boolean isReactive() {
+		return this.reactive;
+	}
+
+	/**
+	 * @return whether the method is retried as a {@link Mono}, otherwise as a
+	 *         {@link Flux}
+	 */
+	boolean isSingleValue() {
+		return this.singleValue;
+	}
+
+	/**
+	 * @return whether the method is not reactive and its caller waits for the
+	 *         retried call
+	 */
+	boolean isBlocking() {
+		return this.blocking;
+	}
+
+	Mono<?> toMono(Object result) {
+		if (this.blocking)
+			return Mono.justOrEmpty(result);
+		if (this.adapter == null)
+			return (Mono<?>) result;
+		return Mono.from(this.adapter.toPublisher(result));
+	}
+
+	Flux<?> toFlux(Object result) {
+		if (this.adapter == null)
+			return (Flux<?>) result;
+		return Flux.from(this.adapter.toPublisher(result));
+	}
+
+	/**
+	 * @return the retried publisher adapted to the return type of the method
+	 */
+	Object fromPublisher(Publisher<?> publisher) {
+		return this.adapter == null ? publisher : this.adapter.fromPublisher(publisher);
+	}
+}
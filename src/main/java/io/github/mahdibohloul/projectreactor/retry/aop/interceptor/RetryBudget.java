@@ -0,0 +1,39 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+/**
+ * Budget consulted by a {@link ReactiveRetryInterceptor} before each retry.
+ * When the budget is empty the retry is not performed and the original failure
+ * is propagated immediately, which prevents the retries of many concurrent
+ * calls from multiplying the load on a failing downstream service.
+ * <p>
+ * A budget is shared by all interceptors it is set on, so it can be scoped to a
+ * single interceptor, to a named group of methods or to the whole application.
+ * Implementations are called for every call and every retry, so they must be
+ * thread-safe and should not block.
+ *
+ * @author Mahdi Bohloul
+ * @see TokenBucketRetryBudget
+ * @see RatioRetryBudget
+ * @since 2.0.0
+ */
+public interface RetryBudget {
+	/**
+	 * Budget that never rejects a retry.
+	 */
+	RetryBudget UNLIMITED = () -> true;
+
+	/**
+	 * Called when a call of an advised method is subscribed to, before its first
+	 * attempt.
+	 */
+	default void onCall() {
+	}
+
+	/**
+	 * Acquires the permission to retry a failed attempt.
+	 *
+	 * @return {@code true} if the retry can be performed, {@code false} if the
+	 *         budget is empty
+	 */
+	boolean tryAcquire();
+}
@@ -0,0 +1,70 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Extracts the delay suggested by a failure before it is retried, for instance
+ * the {@code Retry-After} header of an HTTP 429 or 503 response. When a hint is
+ * present, the retry waits for it, bounded by the maximum hinted delay and the
+ * maximum delay of the backoff, instead of the delay computed by the retry
+ * strategy.
+ * <p>
+ * For instance, with Spring WebFlux:
+ *
+ * <pre class="code">
+ * RetryDelayHint retryAfter = failure -&gt; failure instanceof WebClientResponseException ex
+ * 		&amp;&amp; (ex.getStatusCode().value() == 429 || ex.getStatusCode().value() == 503)
+ * 				? RetryDelayHint.parseRetryAfter(ex.getHeaders().getFirst("Retry-After"))
+ * 				: null;
+ * </pre>
+ *
+ * Implementations are called for every retried failure, so they must be
+ * thread-safe and should not block.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+@FunctionalInterface
+public interface RetryDelayHint {
+	/**
+	 * Hint that never suggests a delay.
+	 */
+	RetryDelayHint NONE = failure -> null;
+
+	/**
+	 * @param failure
+	 *            the failure about to be retried
+	 * @return the delay suggested by the failure, or {@code null} if there is none
+	 */
+	Duration getDelay(Throwable failure);
+
+	/**
+	 * Parses the value of a {@code Retry-After} header, either a number of seconds
+	 * or an HTTP date.
+	 *
+	 * @param retryAfter
+	 *            the value of the header, may be {@code null}
+	 * @return the delay, {@link Duration#ZERO} for a date in the past, or
+	 *         {@code null} if the value is missing or invalid
+	 */
+	static Duration parseRetryAfter(String retryAfter) {
+		if (retryAfter == null || retryAfter.isBlank())
+			return null;
+		String value = retryAfter.trim();
+		try {
+			return Duration.ofSeconds(Math.max(Long.parseLong(value), 0));
+		} catch (NumberFormatException ex) {
+			// Not a number of seconds, try an HTTP date
+		}
+		try {
+			Duration delay = Duration.between(ZonedDateTime.now(),
+					ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME));
+			return delay.isNegative() ? Duration.ZERO : delay;
+		} catch (DateTimeParseException ex) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,15 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+/**
+ * Marks the last failure of a call whose retries are exhausted, so that the
+ * interceptor can tell it from the failures that were not retried. It never
+ * leaves the interceptor, which signals its cause instead.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+final class RetryExhaustedException extends RuntimeException {
+	RetryExhaustedException(Throwable cause) {
+		super(null, cause, false, false);
+	}
+}
@@ -0,0 +1,421 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.springframework.util.Assert;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.Exceptions;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * {@link Scheduler} of the backoff and timeout timers backed by a hashed timing
+ * wheel, to keep the retry timers away from the CPU-bound work of
+ * {@link Schedulers#parallel()} and to hold the hundreds of thousands of timers
+ * pending during an outage cheaply.
+ * <p>
+ * Scheduling and cancelling a timer only enqueue it, in constant time and
+ * without locking. A single daemon thread advances the wheel every tick, moves
+ * the queued timers to their bucket and hands the expired ones to the executor
+ * scheduler, so a task never runs on the timer thread and the delays are
+ * rounded up to the next tick. Tasks without delay are submitted to the
+ * executor directly. Periodic tasks are not supported.
+ * <p>
+ * The scheduler must be disposed of when it is no longer used, for instance
+ * with {@code @Bean(destroyMethod = "dispose")}, which stops the timer thread
+ * and cancels the pending timers.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+public class TimerWheelScheduler implements Scheduler {
+	/**
+	 * The default duration of a tick.
+	 */
+	public static final Duration DEFAULT_TICK_DURATION = Duration.ofMillis(10);
+
+	/**
+	 * The default number of buckets of the wheel.
+	 */
+	public static final int DEFAULT_TICKS_PER_WHEEL = 512;
+
+	private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+	private final long tickNanos;
+
+	private final Bucket[] wheel;
+
+	private final int mask;
+
+	private final Scheduler executor;
+
+	private final boolean ownsExecutor;
+
+	private final Queue<Timer> scheduledTimers = new ConcurrentLinkedQueue<>();
+
+	private final Queue<Timer> cancelledTimers = new ConcurrentLinkedQueue<>();
+
+	private final AtomicLong pendingTimers = new AtomicLong();
+
+	private final long startNanos;
+
+	private final Thread thread;
+
+	private volatile boolean disposed;
+
+	/**
+	 * Create a new scheduler with the default tick duration and wheel size,
+	 * executing the tasks on its own daemon threads, one per processor.
+	 */
+	public TimerWheelScheduler() {
+		this(DEFAULT_TICK_DURATION, DEFAULT_TICKS_PER_WHEEL,
+				Schedulers.newParallel("reactive-retry", Runtime.getRuntime().availableProcessors(), true), true);
+	}
+
+	/**
+	 * Create a new scheduler.
+	 *
+	 * @param tickDuration
+	 *            the duration of a tick, the precision of the delays
+	 * @param ticksPerWheel
+	 *            the number of buckets of the wheel, rounded up to a power of 2
+	 * @param executor
+	 *            the scheduler executing the tasks, not disposed of with this
+	 *            scheduler
+	 */
+	public TimerWheelScheduler(Duration tickDuration, int ticksPerWheel, Scheduler executor) {
+		this(tickDuration, ticksPerWheel, executor, false);
+	}
+
+	private TimerWheelScheduler(Duration tickDuration, int ticksPerWheel, Scheduler executor, boolean ownsExecutor) {
+		Assert.isTrue(tickDuration != null && tickDuration.toNanos() >= TimeUnit.MILLISECONDS.toNanos(1),
+				"tickDuration must be at least 1ms");
+		Assert.isTrue(ticksPerWheel > 0 && ticksPerWheel <= 1 << 20, "ticksPerWheel must be between 1 and 2^20");
+		Assert.notNull(executor, "executor cannot be null");
+		this.tickNanos = tickDuration.toNanos();
+		int wheelSize = 1;
+		while (wheelSize < ticksPerWheel)
+			wheelSize <<= 1;
+		this.wheel = new Bucket[wheelSize];
+		for (int i = 0; i < this.wheel.length; i++)
+			this.wheel[i] = new Bucket();
+		this.mask = this.wheel.length - 1;
+		this.executor = executor;
+		this.ownsExecutor = ownsExecutor;
+		this.startNanos = System.nanoTime();
+		this.thread = new Thread(this::run, "reactive-retry-timer");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * @return the number of timers scheduled and not expired or cancelled yet
+	 */
+	public long getPendingTimers() {
+		return this.pendingTimers.get();
+	}
+
+	@Override
+	public Disposable schedule(Runnable task) {
+		if (this.disposed)
+			throw Exceptions.failWithRejected();
+		return this.executor.schedule(task);
+	}
+
+	@Override
+	public Disposable schedule(Runnable task, long delay, TimeUnit unit) {
+		return schedule(task, delay, unit, null, null);
+	}
+
+	@Override
+	public Worker createWorker() {
+		return new TimerWorker(this.executor.createWorker());
+	}
+
+	@Override
+	public boolean isDisposed() {
+		return this.disposed;
+	}
+
+	@Override
+	public void dispose() {
+		if (this.disposed)
+			return;
+		this.disposed = true;
+		LockSupport.unpark(this.thread);
+		if (this.ownsExecutor)
+			this.executor.dispose();
+	}
+
+	private Disposable schedule(Runnable task, long delay, TimeUnit unit, Worker worker,
+			Disposable.Composite tasks) {
+		if (this.disposed)
+			throw Exceptions.failWithRejected();
+		long delayNanos = unit.toNanos(delay);
+		if (delayNanos <= 0)
+			return worker != null ? worker.schedule(task) : this.executor.schedule(task);
+		long elapsedNanos = System.nanoTime() - this.startNanos;
+		Timer timer = new Timer(task, (elapsedNanos + Math.min(delayNanos, Long.MAX_VALUE / 2)) / this.tickNanos,
+				worker, tasks);
+		if (tasks != null && !tasks.add(timer))
+			throw Exceptions.failWithRejected();
+		this.pendingTimers.incrementAndGet();
+		this.scheduledTimers.add(timer);
+		return timer;
+	}
+
+	/**
+	 * Advances the wheel every tick until the scheduler is disposed of, then
+	 * cancels the pending timers. A failure is reported and the wheel keeps
+	 * turning, the timers of a failed tick expire on the next round.
+	 */
+	private void run() {
+		long tick = 0;
+		while (waitForTick(tick)) {
+			try {
+				removeCancelledTimers();
+				transferScheduledTimers(tick);
+				this.wheel[(int) (tick & this.mask)].expireTimers();
+			} catch (Throwable ex) {
+				handleError(ex);
+			}
+			tick++;
+		}
+		for (Bucket bucket : this.wheel)
+			bucket.cancelTimers();
+		Timer timer;
+		while ((timer = this.scheduledTimers.poll()) != null)
+			timer.dispose();
+	}
+
+	/**
+	 * Parks until the end of the given tick.
+	 *
+	 * @return {@code false} if the scheduler was disposed of meanwhile
+	 */
+	private boolean waitForTick(long tick) {
+		long deadlineNanos = this.startNanos + (tick + 1) * this.tickNanos;
+		while (!this.disposed) {
+			long sleepNanos = deadlineNanos - System.nanoTime();
+			if (sleepNanos <= 0)
+				return true;
+			LockSupport.parkNanos(this, sleepNanos);
+		}
+		return false;
+	}
+
+	/**
+	 * Reports a failure of the timer thread to its uncaught exception handler,
+	 * without stopping it. Fatal errors are rethrown.
+	 */
+	private static void handleError(Throwable error) {
+		Exceptions.throwIfJvmFatal(error);
+		Thread thread = Thread.currentThread();
+		thread.getUncaughtExceptionHandler().uncaughtException(thread, error);
+	}
+
+	private void removeCancelledTimers() {
+		Timer timer;
+		while ((timer = this.cancelledTimers.poll()) != null)
+			if (timer.bucket != null)
+				timer.bucket.remove(timer);
+	}
+
+	/**
+	 * Moves the scheduled timers to their bucket. A timer whose deadline already
+	 * passed goes to the bucket of the current tick and expires immediately.
+	 */
+	private void transferScheduledTimers(long tick) {
+		for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+			Timer timer = this.scheduledTimers.poll();
+			if (timer == null)
+				return;
+			if (timer.get() != Timer.WAITING)
+				continue;
+			long deadlineTick = Math.max(timer.deadlineTick, tick);
+			timer.remainingRounds = (deadlineTick - tick) / this.wheel.length;
+			this.wheel[(int) (deadlineTick & this.mask)].add(timer);
+		}
+	}
+
+	/**
+	 * A timer of the wheel. Its state only moves forward with compare-and-set, so
+	 * it either expires or is cancelled, once. The links and the remaining rounds
+	 * are only accessed by the timer thread.
+	 */
+	private final class Timer extends AtomicInteger implements Disposable {
+		private static final int WAITING = 0;
+
+		private static final int EXPIRED = 1;
+
+		private static final int CANCELLED = 2;
+
+		private final Runnable task;
+
+		private final long deadlineTick;
+
+		private final Worker worker;
+
+		private final Disposable.Composite tasks;
+
+		private volatile Disposable execution;
+
+		private long remainingRounds;
+
+		private Bucket bucket;
+
+		private Timer next;
+
+		private Timer prev;
+
+		private Timer(Runnable task, long deadlineTick, Worker worker, Disposable.Composite tasks) {
+			this.task = task;
+			this.deadlineTick = deadlineTick;
+			this.worker = worker;
+			this.tasks = tasks;
+		}
+
+		private void expire() {
+			if (!compareAndSet(WAITING, EXPIRED))
+				return;
+			pendingTimers.decrementAndGet();
+			if (this.tasks != null)
+				this.tasks.remove(this);
+			try {
+				this.execution = this.worker != null ? this.worker.schedule(this.task)
+						: executor.schedule(this.task);
+			} catch (RejectedExecutionException ex) {
+				// The executor was disposed of, like the tasks it would have run.
+			}
+		}
+
+		@Override
+		public void dispose() {
+			if (compareAndSet(WAITING, CANCELLED)) {
+				pendingTimers.decrementAndGet();
+				if (this.tasks != null)
+					this.tasks.remove(this);
+				cancelledTimers.add(this);
+				return;
+			}
+			Disposable execution = this.execution;
+			if (execution != null)
+				execution.dispose();
+		}
+
+		@Override
+		public boolean isDisposed() {
+			return get() == CANCELLED || (get() == EXPIRED && this.execution != null && this.execution.isDisposed());
+		}
+	}
+
+	/**
+	 * A doubly linked list of the timers expiring on the ticks of a slot of the
+	 * wheel, only accessed by the timer thread.
+	 */
+	private static final class Bucket {
+		private Timer head;
+
+		private Timer tail;
+
+		private void add(Timer timer) {
+			timer.bucket = this;
+			if (this.head == null) {
+				this.head = timer;
+				this.tail = timer;
+			} else {
+				this.tail.next = timer;
+				timer.prev = this.tail;
+				this.tail = timer;
+			}
+		}
+
+		private void remove(Timer timer) {
+			if (timer.prev != null)
+				timer.prev.next = timer.next;
+			else
+				this.head = timer.next;
+			if (timer.next != null)
+				timer.next.prev = timer.prev;
+			else
+				this.tail = timer.prev;
+			timer.prev = null;
+			timer.next = null;
+			timer.bucket = null;
+		}
+
+		/**
+		 * Expires the timers of the current round and counts down the rounds of the
+		 * others. A timer failing to expire does not prevent the others from expiring.
+		 */
+		private void expireTimers() {
+			Timer timer = this.head;
+			while (timer != null) {
+				Timer next = timer.next;
+				if (timer.remainingRounds <= 0) {
+					remove(timer);
+					try {
+						timer.expire();
+					} catch (Throwable ex) {
+						handleError(ex);
+					}
+				} else if (timer.get() == Timer.CANCELLED) {
+					remove(timer);
+				} else {
+					timer.remainingRounds--;
+				}
+				timer = next;
+			}
+		}
+
+		private void cancelTimers() {
+			Timer timer;
+			while ((timer = this.head) != null) {
+				remove(timer);
+				timer.dispose();
+			}
+		}
+	}
+
+	/**
+	 * Worker running its tasks one at a time on a worker of the executor, and
+	 * cancelling its pending timers when it is disposed of.
+	 */
+	private final class TimerWorker implements Worker {
+		private final Worker worker;
+
+		private final Disposable.Composite tasks = Disposables.composite();
+
+		private TimerWorker(Worker worker) {
+			this.worker = worker;
+		}
+
+		@Override
+		public Disposable schedule(Runnable task) {
+			return this.worker.schedule(task);
+		}
+
+		@Override
+		public Disposable schedule(Runnable task, long delay, TimeUnit unit) {
+			return TimerWheelScheduler.this.schedule(task, delay, unit, this.worker, this.tasks);
+		}
+
+		@Override
+		public boolean isDisposed() {
+			return this.worker.isDisposed();
+		}
+
+		@Override
+		public void dispose() {
+			this.tasks.dispose();
+			this.worker.dispose();
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.util.Assert;
+
+/**
+ * {@link RetryBudget} that allows bursts of up to {@code capacity} retries and
+ * refills at a fixed rate of tokens per second.
+ * <p>
+ * The bucket is implemented as a generic cell rate algorithm: a single
+ * {@link AtomicLong} holds the time at which the bucket is full again and each
+ * retry moves it forward by the refill interval of one token, so acquiring a
+ * token is a single compare-and-set without any lock or background refill.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+public class TokenBucketRetryBudget implements RetryBudget {
+	private final long tokenNanos;
+
+	private final long burstNanos;
+
+	private final AtomicLong fullAtNanos;
+
+	/**
+	 * Create a new token bucket, initially full.
+	 *
+	 * @param capacity
+	 *            the maximum number of retries that can be performed in a burst
+	 * @param tokensPerSecond
+	 *            the number of retries added back to the bucket every second
+	 */
+	public TokenBucketRetryBudget(long capacity, double tokensPerSecond) {
+		Assert.isTrue(capacity > 0, "capacity must be greater than 0");
+		Assert.isTrue(tokensPerSecond > 0, "tokensPerSecond must be greater than 0");
+		this.tokenNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / tokensPerSecond));
+		Assert.isTrue(capacity <= Long.MAX_VALUE / 4 / this.tokenNanos, "capacity is too large for the refill rate");
+		this.burstNanos = capacity * this.tokenNanos;
+		this.fullAtNanos = new AtomicLong(System.nanoTime());
+	}
+
+	@Override
+	public boolean tryAcquire() {
+		long now = System.nanoTime();
+		while (true) {
+			long fullAt = this.fullAtNanos.get();
+			long next = (fullAt - now < 0 ? now : fullAt) + this.tokenNanos;
+			if (next - now > this.burstNanos)
+				return false;
+			if (this.fullAtNanos.compareAndSet(fullAt, next))
+				return true;
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.interceptor;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ConcurrencyLimit} derived from TCP Vegas: it estimates the number of
+ * attempts queued in the dependency from the ratio of the latency without load,
+ * the lowest latency observed, to the latency of each attempt, and keeps that
+ * queue between {@code 3 * log10(limit)} and {@code 6 * log10(limit)} attempts.
+ * The limit therefore backs off as soon as the latency rises, before the
+ * attempts start to fail, and also backs off after each failed attempt.
+ * <p>
+ * The latency without load is measured again after about {@code 30 * limit}
+ * samples, so that a change of the dependency, or an outlier, does not skew the
+ * estimate for good.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+public class VegasConcurrencyLimit extends AbstractConcurrencyLimit {
+	private static final int PROBE_MULTIPLIER = 30;
+
+	private final AtomicLong noLoadRttNanos = new AtomicLong();
+
+	private final AtomicLong samples = new AtomicLong();
+
+	/**
+	 * Create a new limit with a minimum of 1.
+	 *
+	 * @param initialLimit
+	 *            the limit before the first sample
+	 * @param maxLimit
+	 *            the maximum limit
+	 */
+	public VegasConcurrencyLimit(int initialLimit, int maxLimit) {
+		this(initialLimit, 1, maxLimit);
+	}
+
+	/**
+	 * Create a new limit.
+	 *
+	 * @param initialLimit
+	 *            the limit before the first sample
+	 * @param minLimit
+	 *            the minimum limit
+	 * @param maxLimit
+	 *            the maximum limit
+	 */
+	public VegasConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+		super(initialLimit, minLimit, maxLimit);
+	}
+
+	@Override
+	public void onSample(long rttNanos, int inFlight, boolean dropped) {
+		if (rttNanos <= 0)
+			return;
+		if (this.samples.incrementAndGet() >= PROBE_MULTIPLIER * limit()) {
+			this.samples.set(0);
+			this.noLoadRttNanos.set(rttNanos);
+			return;
+		}
+		long noLoadRttNanos = this.noLoadRttNanos.accumulateAndGet(rttNanos,
+				(current, rtt) -> current == 0 ? rtt : Math.min(current, rtt));
+		update(limit -> {
+			double log = Math.max(1, Math.log10(limit));
+			if (dropped)
+				return limit - log;
+			if (inFlight * 2 < limit)
+				return limit;
+			double queue = Math.ceil(limit * (1 - (double) noLoadRttNanos / rttNanos));
+			if (queue <= log)
+				return limit + 6 * log;
+			if (queue < 3 * log)
+				return limit + log;
+			if (queue > 6 * log)
+				return limit - log;
+			return limit;
+		});
+	}
+}
@@ -0,0 +1,180 @@
+package io.github.mahdibohloul.projectreactor.retry.aop.metrics;
+
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.ReactiveRetryListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import org.springframework.util.Assert;
+import reactor.core.publisher.SignalType;
+import reactor.util.retry.Retry;
+
+/**
+ * {@link ReactiveRetryListener} that records the calls and retries of every
+ * interceptor as Micrometer meters, tagged with the interceptor name under
+ * {@value #METHOD_TAG}. For annotation based interceptors the name is the
+ * signature of the advised method.
+ * <p>
+ * For each interceptor, the {@value #CALLS}, {@value #RETRIES},
+ * {@value #EXHAUSTED}, {@value #REJECTED} and {@value #NON_RETRYABLE} counters
+ * count the calls, the retries, the calls failed after all attempts, the
+ * retries rejected by the circuit breaker or the retry budget and the failures
+ * rejected by the error filter. The {@value #FALLBACK} counter counts the calls
+ * falling back to the last successful value, tagged with the
+ * {@value #OUTCOME_TAG} {@code hit} or {@code miss}. The {@value #DURATION}
+ * timer measures the calls including their retries and backoff delays, tagged
+ * with the {@value #OUTCOME_TAG} of the call, and the {@value #BACKOFF} timer
+ * measures the delays between a failure and its retry.
+ * <p>
+ * Micrometer is an optional dependency, register this listener as a bean to
+ * enable the metrics.
+ *
+ * @author Mahdi Bohloul
+ * @since 2.0.0
+ */
+public class MicrometerReactiveRetryListener implements ReactiveRetryListener {
+	public static final String CALLS = "reactive.retry.calls";
+	public static final String RETRIES = "reactive.retry.retries";
+	public static final String EXHAUSTED = "reactive.retry.exhausted";
+	public static final String REJECTED = "reactive.retry.rejected";
+	public static final String NON_RETRYABLE = "reactive.retry.non.retryable";
+	public static final String FALLBACK = "reactive.retry.fallback";
+	public static final String DURATION = "reactive.retry.duration";
+	public static final String BACKOFF = "reactive.retry.backoff";
+	public static final String METHOD_TAG = "method";
+	public static final String OUTCOME_TAG = "outcome";
+
+	private final MeterRegistry meterRegistry;
+
+	private final Tags tags;
+
+	private final ConcurrentMap<String, Meters> meters = new ConcurrentHashMap<>();
+
+	public MicrometerReactiveRetryListener(MeterRegistry meterRegistry) {
+		this(meterRegistry, Tags.empty());
+	}
+
+	/**
+	 * Create a new listener.
+	 *
+	 * @param meterRegistry
+	 *            the registry the meters are registered in
+	 * @param tags
+	 *            the common tags added to all meters
+	 */
+	public MicrometerReactiveRetryListener(MeterRegistry meterRegistry, Iterable<Tag> tags) {
+		Assert.notNull(meterRegistry, "meterRegistry cannot be null");
+		Assert.notNull(tags, "tags cannot be null");
+		this.meterRegistry = meterRegistry;
+		this.tags = Tags.of(tags);
+	}
+
+	@Override
+	public void beforeCall(String name) {
+		meters(name).calls.increment();
+	}
+
+	@Override
+	public void afterCall(String name, SignalType signalType, long durationNanos) {
+		Meters meters = meters(name);
+		Timer timer = switch (signalType) {
+			case ON_COMPLETE -> meters.success;
+			case ON_ERROR -> meters.failure;
+			default -> meters.cancelled;
+		};
+		timer.record(durationNanos, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public void beforeRetry(String name, Retry.RetrySignal retrySignal) {
+		meters(name).retries.increment();
+	}
+
+	@Override
+	public void onBackOff(String name, long delayNanos) {
+		meters(name).backOff.record(delayNanos, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public void onRetryExhausted(String name, Retry.RetrySignal retrySignal) {
+		meters(name).exhausted.increment();
+	}
+
+	@Override
+	public void onRetryRejected(String name, Retry.RetrySignal retrySignal) {
+		meters(name).rejected.increment();
+	}
+
+	@Override
+	public void onFallback(String name, Throwable failure, boolean hit) {
+		Meters meters = meters(name);
+		(hit ? meters.fallbackHit : meters.fallbackMiss).increment();
+	}
+
+	@Override
+	public void onNonRetryableError(String name, Throwable failure) {
+		meters(name).nonRetryable.increment();
+	}
+
+	@Override
+	public boolean supportsCallEvents() {
+		return true;
+	}
+
+	private Meters meters(String name) {
+		Meters meters = this.meters.get(name);
+		if (meters == null)
+			meters = this.meters.computeIfAbsent(name,
+					key -> new Meters(this.meterRegistry, this.tags.and(METHOD_TAG, key)));
+		return meters;
+	}
+
+	private static final class Meters {
+		private final Counter calls;
+		private final Counter retries;
+		private final Counter exhausted;
+		private final Counter rejected;
+		private final Counter nonRetryable;
+		private final Counter fallbackHit;
+		private final Counter fallbackMiss;
+		private final Timer success;
+		private final Timer failure;
+		private final Timer cancelled;
+		private final Timer backOff;
+
+		private Meters(MeterRegistry meterRegistry, Tags tags) {
+			this.calls = Counter.builder(CALLS).tags(tags).description("Calls of the retryable method")
+					.register(meterRegistry);
+			this.retries = Counter.builder(RETRIES).tags(tags).description("Retries of the retryable method")
+					.register(meterRegistry);
+			this.exhausted = Counter.builder(EXHAUSTED).tags(tags)
+					.description("Calls failed after all retry attempts").register(meterRegistry);
+			this.rejected = Counter.builder(REJECTED).tags(tags)
+					.description("Retries rejected by the circuit breaker or the retry budget").register(meterRegistry);
+			this.nonRetryable = Counter.builder(NON_RETRYABLE).tags(tags)
+					.description("Failures rejected by the retry error filter").register(meterRegistry);
+			this.fallbackHit = fallback(meterRegistry, tags, "hit");
+			this.fallbackMiss = fallback(meterRegistry, tags, "miss");
+			this.success = duration(meterRegistry, tags, "success");
+			this.failure = duration(meterRegistry, tags, "failure");
+			this.cancelled = duration(meterRegistry, tags, "cancelled");
+			this.backOff = Timer.builder(BACKOFF).tags(tags).description("Delay between a failure and its retry")
+					.register(meterRegistry);
+		}
+
+		private static Counter fallback(MeterRegistry meterRegistry, Tags tags, String outcome) {
+			return Counter.builder(FALLBACK).tags(tags).tag(OUTCOME_TAG, outcome)
+					.description("Exhausted calls falling back to the last successful value").register(meterRegistry);
+		}
+
+		private static Timer duration(MeterRegistry meterRegistry, Tags tags, String outcome) {
+			return Timer.builder(DURATION).tags(tags).tag(OUTCOME_TAG, outcome)
+					.description("Duration of the calls including retries and backoff delays")
+					.register(meterRegistry);
+		}
+	}
+}
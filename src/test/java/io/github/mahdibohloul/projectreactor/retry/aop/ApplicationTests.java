@@ -1,14 +1,37 @@
 package io.github.mahdibohloul.projectreactor.retry.aop;
 
 import io.github.mahdibohloul.projectreactor.retry.aop.annotation.EnableReactiveRetry;
+import io.github.mahdibohloul.projectreactor.retry.aop.annotation.ReactiveRecover;
 import io.github.mahdibohloul.projectreactor.retry.aop.annotation.ReactiveRetryable;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.BackOffAlgorithm;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.Bulkhead;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.ConcurrencyLimitAlgorithm;
 import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.ReactiveRetryInterceptorBuilder;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.ReactiveRetryListener;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.ReactiveRetryPolicy;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.ReactiveRetryPolicyRegistry;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.RetryBudget;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.RetryDelayHint;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.TimerWheelScheduler;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.TokenBucketRetryBudget;
+import io.github.mahdibohloul.projectreactor.retry.aop.metrics.MicrometerReactiveRetryListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.aopalliance.intercept.MethodInterceptor;
+import org.reactivestreams.Publisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
 public class ApplicationTests {
 	@Configuration
@@ -60,6 +83,128 @@ public class ApplicationTests {
 		public CustomInterceptorService customInterceptorService() {
 			return new CustomInterceptorService();
 		}
+
+		@Bean
+		public CountingRetryListener countingRetryListener() {
+			return new CountingRetryListener();
+		}
+
+		@Bean
+		public ListenerService listenerService() {
+			return new ListenerService();
+		}
+
+		@Bean
+		public CircuitBreakerService circuitBreakerService() {
+			return new CircuitBreakerService();
+		}
+
+		@Bean
+		public HedgingService hedgingService() {
+			return new HedgingService();
+		}
+
+		@Bean
+		public TimeoutService timeoutService() {
+			return new TimeoutService();
+		}
+
+		@Bean
+		public CauseService causeService() {
+			return new CauseService();
+		}
+
+		@Bean
+		public PublisherService publisherService() {
+			return new PublisherService();
+		}
+
+		@Bean
+		public QuoteService primaryQuoteService() {
+			return new PrimaryQuoteService();
+		}
+
+		@Bean
+		public QuoteService secondaryQuoteService() {
+			return new SecondaryQuoteService();
+		}
+
+		@Bean
+		public ArgumentsService argumentsService() {
+			return new ArgumentsService();
+		}
+
+		@Bean
+		public RecoverService recoverService() {
+			return new RecoverService();
+		}
+
+		@Bean
+		public FallbackService fallbackService() {
+			return new FallbackService();
+		}
+
+		@Bean
+		public CoalesceService coalesceService() {
+			return new CoalesceService();
+		}
+
+		@Bean
+		public ExpressionService expressionService() {
+			return new ExpressionService();
+		}
+
+		@Bean
+		public ReactiveRetryPolicyRegistry reactiveRetryPolicyRegistry() {
+			ReactiveRetryPolicyRegistry registry = new ReactiveRetryPolicyRegistry();
+			registry.setPolicy("payments", ReactiveRetryPolicy.maxAttempts(1));
+			return registry;
+		}
+
+		@Bean
+		public PolicyService policyService() {
+			return new PolicyService();
+		}
+
+		@Bean
+		public AdaptiveBackOffService adaptiveBackOffService() {
+			return new AdaptiveBackOffService();
+		}
+
+		@Bean
+		public BackOffAlgorithmService backOffAlgorithmService() {
+			return new BackOffAlgorithmService();
+		}
+
+		@Bean
+		public BulkheadService bulkheadService() {
+			return new BulkheadService();
+		}
+
+		@Bean
+		public Bulkhead queueBulkhead() {
+			return new Bulkhead(2, Duration.ofSeconds(10));
+		}
+
+		@Bean
+		public MethodInterceptor queueInterceptor() {
+			return ReactiveRetryInterceptorBuilder.maxAttempts().setBulkhead(queueBulkhead()).build();
+		}
+
+		@Bean
+		public ConcurrencyLimitService concurrencyLimitService() {
+			return new ConcurrencyLimitService();
+		}
+
+		@Bean
+		public BlockingService blockingService() {
+			return new BlockingService();
+		}
+
+		@Bean
+		public ResumableService resumableService() {
+			return new ResumableService();
+		}
 	}
 
 	@Configuration
@@ -79,6 +224,103 @@ public class ApplicationTests {
 		}
 	}
 
+	@Configuration
+	@EnableReactiveRetry(eagerInit = true)
+	public static class EagerInitConfiguration {
+		@Bean
+		public Service service() {
+			return new Service();
+		}
+	}
+
+	@Configuration
+	@EnableReactiveRetry(eagerInit = true)
+	public static class InvalidEagerInitConfiguration {
+		@Bean
+		public InvalidMaxAttemptsService invalidMaxAttemptsService() {
+			return new InvalidMaxAttemptsService();
+		}
+	}
+
+	@Configuration
+	@EnableReactiveRetry(eagerInit = true)
+	public static class InvalidExpressionEagerInitConfiguration {
+		@Bean
+		public InvalidExpressionService invalidExpressionService() {
+			return new InvalidExpressionService();
+		}
+	}
+
+	@Configuration
+	@EnableReactiveRetry(eagerInit = true)
+	public static class MissingInterceptorEagerInitConfiguration {
+		@Bean
+		public CustomInterceptorService customInterceptorService() {
+			return new CustomInterceptorService();
+		}
+	}
+
+	@Configuration
+	@EnableReactiveRetry
+	public static class MetricsConfiguration {
+		@Bean
+		public MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+
+		@Bean
+		public MicrometerReactiveRetryListener micrometerReactiveRetryListener(MeterRegistry meterRegistry) {
+			return new MicrometerReactiveRetryListener(meterRegistry);
+		}
+
+		@Bean
+		public Service service() {
+			return new Service();
+		}
+	}
+
+	@Configuration
+	@EnableReactiveRetry
+	public static class RetryBudgetConfiguration {
+		@Bean
+		public RetryBudget retryBudget() {
+			return new TokenBucketRetryBudget(1, 0.001);
+		}
+
+		@Bean
+		public Service service() {
+			return new Service();
+		}
+	}
+
+	@Configuration
+	@EnableReactiveRetry
+	public static class RetryDelayHintConfiguration {
+		@Bean
+		public RetryDelayHint retryDelayHint() {
+			return failure -> failure instanceof ThrottledException throttled ? throttled.getRetryAfter() : null;
+		}
+
+		@Bean
+		public ThrottledService throttledService() {
+			return new ThrottledService();
+		}
+	}
+
+	@Configuration
+	@EnableReactiveRetry(scheduler = "retryScheduler")
+	public static class SchedulerConfiguration {
+		@Bean(destroyMethod = "dispose")
+		public TimerWheelScheduler retryScheduler() {
+			return new TimerWheelScheduler();
+		}
+
+		@Bean
+		public ScheduledService scheduledService() {
+			return new ScheduledService();
+		}
+	}
+
 	public static class Service {
 		private int count = 0;
 
@@ -174,6 +416,14 @@ public class ApplicationTests {
 			});
 		}
 
+		public Flux<String> names() {
+			return Flux.defer(() -> {
+				if (this.count++ < 2)
+					return Flux.error(new RuntimeException("error"));
+				return Flux.just("first", "second");
+			});
+		}
+
 		public int getCount() {
 			return count;
 		}
@@ -195,4 +445,607 @@ public class ApplicationTests {
 			return count;
 		}
 	}
+
+	public static class InvalidMaxAttemptsService {
+		@ReactiveRetryable(maxAttempts = 0)
+		public Mono<Void> service() {
+			return Mono.empty();
+		}
+	}
+
+	public static class InvalidExpressionService {
+		@ReactiveRetryable(includeExpression = "#root instanceof T(java.io.IOExcepton)")
+		public Mono<Void> service() {
+			return Mono.empty();
+		}
+	}
+
+	public static class CountingRetryListener implements ReactiveRetryListener {
+		private final AtomicInteger beforeRetries = new AtomicInteger();
+
+		private final AtomicInteger afterRetries = new AtomicInteger();
+
+		private volatile String name;
+
+		@Override
+		public void beforeRetry(String name, Retry.RetrySignal retrySignal) {
+			this.name = name;
+			this.beforeRetries.incrementAndGet();
+		}
+
+		@Override
+		public void afterRetry(String name, Retry.RetrySignal retrySignal) {
+			this.afterRetries.incrementAndGet();
+		}
+
+		public int getBeforeRetries() {
+			return beforeRetries.get();
+		}
+
+		public int getAfterRetries() {
+			return afterRetries.get();
+		}
+
+		public String getName() {
+			return name;
+		}
+	}
+
+	public static class ListenerService {
+		private int count = 0;
+
+		@ReactiveRetryable(listeners = "countingRetryListener")
+		public Mono<Void> service() {
+			return Mono.defer(() -> {
+				if (this.count++ < 2)
+					return Mono.error(new RuntimeException("error"));
+				return Mono.empty();
+			});
+		}
+
+		public int getCount() {
+			return count;
+		}
+	}
+
+	public static class CircuitBreakerService {
+		private int count = 0;
+
+		@ReactiveRetryable(circuitBreaker = true, circuitBreakerFailureRate = 1.0, circuitBreakerWindowSize = 2)
+		public Mono<Void> service() {
+			return Mono.defer(() -> {
+				this.count++;
+				return Mono.error(new RuntimeException("error"));
+			});
+		}
+
+		public int getCount() {
+			return count;
+		}
+	}
+
+	public static class HedgingService {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@ReactiveRetryable(hedging = true, hedgeDelay = 50)
+		public Mono<String> service() {
+			return Mono.defer(() -> {
+				if (this.count.incrementAndGet() == 1)
+					return Mono.never();
+				return Mono.just("hedged");
+			});
+		}
+
+		@ReactiveRetryable(hedging = true, hedgeDelay = 5000, maxHedges = 2, listeners = "countingRetryListener")
+		public Mono<String> failingHedges() {
+			return Mono.defer(() -> {
+				if (this.count.incrementAndGet() <= 2)
+					return Mono.error(new RuntimeException("error"));
+				return Mono.just("hedged");
+			});
+		}
+
+		@ReactiveRetryable(hedging = true, hedgeDelay = 5000, maxHedges = 2, circuitBreaker = true,
+				circuitBreakerFailureRate = 1.0, circuitBreakerWindowSize = 2)
+		public Mono<String> circuitBreaker() {
+			return Mono.defer(() -> {
+				this.count.incrementAndGet();
+				return Mono.error(new RuntimeException("error"));
+			});
+		}
+
+		public int getCount() {
+			return count.get();
+		}
+	}
+
+	public static class TimeoutService {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@ReactiveRetryable(attemptTimeout = 50)
+		public Mono<String> attemptTimeout() {
+			return Mono.defer(() -> {
+				if (this.count.incrementAndGet() == 1)
+					return Mono.never();
+				return Mono.just("value");
+			});
+		}
+
+		@ReactiveRetryable(overallTimeout = 100)
+		public Mono<String> overallTimeout() {
+			return Mono.never();
+		}
+
+		public int getCount() {
+			return count.get();
+		}
+	}
+
+	public static class CauseService {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@ReactiveRetryable(include = IOException.class, causeDepth = 1)
+		public Mono<String> wrappedCause() {
+			return Mono.defer(() -> {
+				if (this.count.incrementAndGet() == 1)
+					return Mono.error(new UncheckedIOException(new IOException("wrapped")));
+				return Mono.just("value");
+			});
+		}
+
+		@ReactiveRetryable(include = IOException.class)
+		public Mono<String> ignoredCause() {
+			return Mono.defer(() -> {
+				this.count.incrementAndGet();
+				return Mono.error(new UncheckedIOException(new IOException("wrapped")));
+			});
+		}
+
+		public int getCount() {
+			return count.getAndSet(0);
+		}
+	}
+
+	public static class PublisherService {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@ReactiveRetryable
+		public Publisher<String> publisher() {
+			return Flux.defer(() -> {
+				if (this.count.incrementAndGet() == 1)
+					return Flux.error(new IllegalStateException("failed"));
+				return Flux.just("first", "second");
+			});
+		}
+
+		public int getCount() {
+			return count.get();
+		}
+	}
+
+	public interface QuoteService {
+		Mono<Void> quote();
+
+		int getCount();
+	}
+
+	@ReactiveRetryable(maxAttempts = 1)
+	public static class PrimaryQuoteService implements QuoteService {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Mono<Void> quote() {
+			return Mono.defer(() -> {
+				this.count.incrementAndGet();
+				return Mono.error(new IllegalStateException("unavailable"));
+			});
+		}
+
+		@Override
+		public int getCount() {
+			return count.getAndSet(0);
+		}
+	}
+
+	@ReactiveRetryable(maxAttempts = 4)
+	public static class SecondaryQuoteService implements QuoteService {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Mono<Void> quote() {
+			return Mono.defer(() -> {
+				this.count.incrementAndGet();
+				return Mono.error(new IllegalStateException("unavailable"));
+			});
+		}
+
+		@Override
+		public int getCount() {
+			return count.getAndSet(0);
+		}
+	}
+
+	public static class ArgumentsService {
+		private final List<String> arguments = new CopyOnWriteArrayList<>();
+
+		@ReactiveRetryable(maxAttempts = 2)
+		public Mono<String> quote(String symbol, int quantity) {
+			this.arguments.add(symbol + " " + quantity);
+			if (this.arguments.size() <= 2)
+				return Mono.error(new IllegalStateException("unavailable"));
+			return Mono.just(symbol + " " + quantity);
+		}
+
+		public List<String> getArguments() {
+			return arguments;
+		}
+	}
+
+	public static class RecoverService {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@ReactiveRetryable(include = IllegalStateException.class, maxAttempts = 2)
+		public Mono<String> quote(String symbol) {
+			return Mono.defer(() -> {
+				this.count.incrementAndGet();
+				return Mono.error(new IllegalStateException("unavailable"));
+			});
+		}
+
+		@ReactiveRetryable(include = IllegalStateException.class)
+		public Flux<String> quotes(String symbol) {
+			return Flux.error(new IllegalStateException("unavailable"));
+		}
+
+		@ReactiveRecover
+		Mono<String> cachedQuote(IllegalStateException failure, String symbol) {
+			return Mono.just("cached " + symbol);
+		}
+
+		@ReactiveRecover
+		Mono<String> defaultQuote(String symbol) {
+			return Mono.just("default " + symbol);
+		}
+
+		public int getCount() {
+			return count.get();
+		}
+	}
+
+	public static class FallbackService {
+		private final AtomicInteger count = new AtomicInteger();
+
+		private volatile boolean available = true;
+
+		@ReactiveRetryable(include = IllegalStateException.class, maxAttempts = 2, fallbackToLastSuccess = true)
+		public Mono<String> price(String symbol) {
+			return Mono.defer(() -> {
+				int count = this.count.incrementAndGet();
+				if (!this.available)
+					return Mono.error(new IllegalStateException("unavailable"));
+				return Mono.just(symbol + " " + count);
+			});
+		}
+
+		@ReactiveRetryable(include = IllegalStateException.class, maxAttempts = 1, fallbackToLastSuccess = true,
+				fallbackTimeToLive = 300, fallbackMaximumSize = 2)
+		public Mono<String> expiringPrice(String symbol) {
+			return price(symbol);
+		}
+
+		public void setAvailable(boolean available) {
+			this.available = available;
+		}
+
+		public int getCount() {
+			return count.get();
+		}
+	}
+
+	public static class CoalesceService {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@ReactiveRetryable(coalesce = true)
+		public Mono<String> quote(String symbol) {
+			return Mono.defer(() -> {
+				this.count.incrementAndGet();
+				return Mono.just(symbol).delayElement(Duration.ofMillis(100));
+			});
+		}
+
+		public int getCount() {
+			return count.get();
+		}
+	}
+
+	public static class ExpressionService {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@ReactiveRetryable(maxAttemptsExpression = "${five}")
+		public Mono<Void> maxAttempts() {
+			return Mono.defer(() -> {
+				this.count.incrementAndGet();
+				return Mono.error(new IllegalStateException("unavailable"));
+			});
+		}
+
+		@ReactiveRetryable(excludeExpression = "message.contains('permanent')")
+		public Mono<Void> excluded() {
+			return Mono.defer(() -> {
+				this.count.incrementAndGet();
+				return Mono.error(new IllegalStateException("permanent failure"));
+			});
+		}
+
+		@ReactiveRetryable(maxAttempts = 2, includeExpression = "#{@expressionService.${retryMethod}(#root)}")
+		public Mono<Void> included() {
+			return Mono.defer(() -> {
+				this.count.incrementAndGet();
+				return Mono.error(new UnsupportedOperationException("unsupported"));
+			});
+		}
+
+		@ReactiveRetryable(maxAttempts = 2, causeDepth = 1, includeExpression = "retryAfter != null")
+		public Mono<Void> includedCause() {
+			return Mono.defer(() -> {
+				this.count.incrementAndGet();
+				return Mono.error(new IllegalStateException("unavailable", new ThrottledException(Duration.ZERO)));
+			});
+		}
+
+		public boolean shouldRetry(Throwable failure) {
+			return failure instanceof UnsupportedOperationException;
+		}
+
+		public int getCount() {
+			return count.getAndSet(0);
+		}
+	}
+
+	public static class PolicyService {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@ReactiveRetryable(policy = "payments")
+		public Mono<Void> pay() {
+			return Mono.defer(() -> {
+				this.count.incrementAndGet();
+				return Mono.error(new IllegalStateException("unavailable"));
+			});
+		}
+
+		public int getCount() {
+			return count.getAndSet(0);
+		}
+	}
+
+	public static class AdaptiveBackOffService {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@ReactiveRetryable(exponentialBackoff = true, adaptiveBackoff = true, backOffMinDelay = 5, backOffMaxDelay = 20)
+		public Mono<String> recovering() {
+			return Mono.defer(() -> {
+				if (this.count.incrementAndGet() < 3)
+					return Mono.error(new IllegalStateException("unavailable"));
+				return Mono.just("ACME");
+			});
+		}
+
+		@ReactiveRetryable(exponentialBackoff = true, adaptiveBackoff = true, backOffMinDelay = 5, backOffMaxDelay = 20)
+		public Mono<String> failing() {
+			return Mono.defer(() -> {
+				this.count.incrementAndGet();
+				return Mono.error(new IllegalStateException("unavailable"));
+			});
+		}
+
+		public int getCount() {
+			return count.getAndSet(0);
+		}
+	}
+
+	public static class BackOffAlgorithmService {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@ReactiveRetryable(exponentialBackoff = true, backOffAlgorithm = BackOffAlgorithm.DECORRELATED_JITTER,
+				backOffMinDelay = 5, backOffMaxDelay = 20)
+		public Mono<Void> decorrelatedJitter() {
+			return failure();
+		}
+
+		@ReactiveRetryable(exponentialBackoff = true, backOffAlgorithm = BackOffAlgorithm.FIBONACCI,
+				backOffMinDelay = 10)
+		public Mono<Void> fibonacci() {
+			return failure();
+		}
+
+		private Mono<Void> failure() {
+			return Mono.defer(() -> {
+				this.count.incrementAndGet();
+				return Mono.error(new IllegalStateException("unavailable"));
+			});
+		}
+
+		public int getCount() {
+			return count.getAndSet(0);
+		}
+	}
+
+	public static class ThrottledService {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@ReactiveRetryable(exponentialBackoff = true, backOffMinDelay = 1000, backOffMaxDelay = 1000)
+		public Mono<String> immediately() {
+			return throttled(Duration.ZERO);
+		}
+
+		@ReactiveRetryable(maxAttempts = 1)
+		public Mono<String> later() {
+			return throttled(Duration.ofMillis(100));
+		}
+
+		@ReactiveRetryable(exponentialBackoff = true, backOffMaxDelay = 20)
+		public Mono<String> bounded() {
+			return throttled(Duration.ofMinutes(1));
+		}
+
+		@ReactiveRetryable(maxAttempts = 1, backOffMaxDelay = 20)
+		public Mono<String> boundedWithoutBackOff() {
+			return throttled(Duration.ofMinutes(1));
+		}
+
+		@ReactiveRetryable(maxAttempts = 1, backOffFixDelay = 10, backOffMaxDelay = 20)
+		public Mono<String> boundedFixedDelay() {
+			return throttled(Duration.ofMinutes(1));
+		}
+
+		@ReactiveRetryable(exponentialBackoff = true, backOffMinDelay = 50, maxAttempts = 1)
+		public Mono<String> unhinted() {
+			return Mono.defer(() -> {
+				if (this.count.incrementAndGet() < 2)
+					return Mono.error(new IllegalStateException("unavailable"));
+				return Mono.just("ACME");
+			});
+		}
+
+		private Mono<String> throttled(Duration retryAfter) {
+			return Mono.defer(() -> {
+				if (this.count.incrementAndGet() < 2)
+					return Mono.error(new ThrottledException(retryAfter));
+				return Mono.just("ACME");
+			});
+		}
+
+		public int getCount() {
+			return count.getAndSet(0);
+		}
+	}
+
+	public static class ThrottledException extends RuntimeException {
+		private final Duration retryAfter;
+
+		public ThrottledException(Duration retryAfter) {
+			super("throttled");
+			this.retryAfter = retryAfter;
+		}
+
+		public Duration getRetryAfter() {
+			return retryAfter;
+		}
+	}
+
+	public static class BulkheadService {
+		@ReactiveRetryable(maxConcurrentCalls = 1)
+		public Mono<String> failFast() {
+			return Mono.delay(Duration.ofMillis(100)).thenReturn("ACME");
+		}
+
+		@ReactiveRetryable(maxConcurrentCalls = 1, maxConcurrentCallsWait = 1000)
+		public Mono<String> waiting() {
+			return Mono.delay(Duration.ofMillis(100)).thenReturn("ACME");
+		}
+
+		@ReactiveRetryable(maxAttempts = 1, maxConcurrentRetries = 1)
+		public Mono<String> retrying() {
+			return Mono.delay(Duration.ofMillis(50)).then(Mono.error(new IllegalStateException("unavailable")));
+		}
+
+		@ReactiveRetryable(interceptor = "queueInterceptor")
+		public Mono<String> queued() {
+			return Mono.delay(Duration.ofMillis(1)).thenReturn("ACME");
+		}
+	}
+
+	public static class ConcurrencyLimitService {
+		@ReactiveRetryable(concurrencyLimit = ConcurrencyLimitAlgorithm.AIMD, maxConcurrentCalls = 2)
+		public Mono<String> limited() {
+			return Mono.delay(Duration.ofMillis(100)).thenReturn("ACME");
+		}
+	}
+
+	public static class ScheduledService {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@ReactiveRetryable(backOffFixDelay = 20)
+		public Mono<String> fixedDelay() {
+			return retryThread();
+		}
+
+		@ReactiveRetryable(exponentialBackoff = true, backOffMinDelay = 20, backOffMaxDelay = 40)
+		public Mono<String> backOff() {
+			return retryThread();
+		}
+
+		private Mono<String> retryThread() {
+			return Mono.defer(() -> {
+				if (this.count.incrementAndGet() % 2 == 1)
+					return Mono.error(new IllegalStateException("unavailable"));
+				return Mono.just(Thread.currentThread().getName());
+			});
+		}
+	}
+
+	public static class BlockingService {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@ReactiveRetryable(blocking = true, maxAttempts = 2)
+		public String load() {
+			if (this.count.incrementAndGet() < 2)
+				throw new IllegalStateException("unavailable");
+			return Thread.currentThread().isVirtual() ? "VIRTUAL" : Thread.currentThread().getName();
+		}
+
+		@ReactiveRetryable(blocking = true, maxAttempts = 1)
+		public String store() throws IOException {
+			this.count.incrementAndGet();
+			throw new IOException("unavailable");
+		}
+
+		@ReactiveRetryable(blocking = true)
+		public Mono<String> loadEagerly() throws InterruptedException {
+			Thread.sleep(10);
+			return Mono.just(Thread.currentThread().isVirtual() ? "VIRTUAL" : Thread.currentThread().getName());
+		}
+
+		@ReactiveRetryable(blocking = true)
+		public String loadSlowly() throws InterruptedException {
+			Thread.sleep(10_000);
+			return "late";
+		}
+
+		@ReactiveRetryable
+		public String notBlocking() {
+			this.count.incrementAndGet();
+			throw new IllegalStateException("unavailable");
+		}
+
+		public int getCount() {
+			return count.getAndSet(0);
+		}
+	}
+
+	public static class ResumableService {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@ReactiveRetryable(maxAttempts = 2, resumeFrom = "#root + 1", resumeParameter = "p0")
+		public Flux<Integer> range(int from, int to) {
+			return failAfterTwoElements(from, to);
+		}
+
+		@ReactiveRetryable(maxAttempts = 2)
+		public Flux<Integer> replayedRange(int from, int to) {
+			return failAfterTwoElements(from, to);
+		}
+
+		private Flux<Integer> failAfterTwoElements(int from, int to) {
+			this.count.incrementAndGet();
+			Flux<Integer> range = Flux.range(from, to - from + 1);
+			if (to - from < 2)
+				return range;
+			return range.take(2).concatWith(Flux.error(new IllegalStateException("unavailable")));
+		}
+
+		public int getCount() {
+			return count.getAndSet(0);
+		}
+	}
 }
@@ -1,13 +1,47 @@
 package io.github.mahdibohloul.projectreactor.retry.aop.annotation;
 
 import io.github.mahdibohloul.projectreactor.retry.aop.ApplicationTests;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.AimdConcurrencyLimit;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.Bulkhead;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.BulkheadFullException;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.CircuitBreaker;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.CircuitBreakerOpenException;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.GradientConcurrencyLimit;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.ReactiveRetryPolicy;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.ReactiveRetryPolicyRegistry;
 import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.ReactiveRetryable;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.RetryDelayHint;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.TimerWheelScheduler;
+import io.github.mahdibohloul.projectreactor.retry.aop.interceptor.VegasConcurrencyLimit;
+import io.github.mahdibohloul.projectreactor.retry.aop.metrics.MicrometerReactiveRetryListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.aopalliance.aop.Advice;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.BeanInitializationException;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import reactor.core.Disposable;
 import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
 class EnableReactiveRetryTests {
@@ -110,6 +144,18 @@ class EnableReactiveRetryTests {
 		context.close();
 	}
 
+	@Test
+	void typePerMethod() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.TestConfiguration.class);
+		ApplicationTests.RetryableService service = context.getBean(ApplicationTests.RetryableService.class);
+		StepVerifier.create(service.names()).expectNext("first", "second").verifyComplete();
+		StepVerifier.create(service.service()).verifyComplete();
+		StepVerifier.create(service.names()).expectNext("first", "second").verifyComplete();
+		Assertions.assertEquals(5, service.getCount());
+		context.close();
+	}
+
 	@Test
 	void customInterceptor() {
 		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
@@ -121,4 +167,562 @@ class EnableReactiveRetryTests {
 		Assertions.assertEquals(6, service.getCount());
 		context.close();
 	}
+
+	@Test
+	void eagerInit() throws NoSuchMethodException {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.EagerInitConfiguration.class);
+		Assertions.assertTrue(isResolved(context, ApplicationTests.Service.class.getMethod("service")));
+		Assertions.assertTrue(isResolved(context, ApplicationTests.Service.class.getMethod("exhaustedRetry")));
+		ApplicationTests.Service service = context.getBean(ApplicationTests.Service.class);
+		Assertions.assertTrue(AopUtils.isAopProxy(service));
+		StepVerifier.create(service.service()).verifyComplete();
+		Assertions.assertEquals(3, service.getCount());
+		context.close();
+	}
+
+	@Test
+	void eagerInitFailsOnInvalidConfiguration() {
+		Assertions.assertThrows(BeanInitializationException.class,
+				() -> new AnnotationConfigApplicationContext(ApplicationTests.InvalidEagerInitConfiguration.class));
+		Assertions.assertThrows(BeanInitializationException.class, () -> new AnnotationConfigApplicationContext(
+				ApplicationTests.MissingInterceptorEagerInitConfiguration.class));
+		Assertions.assertThrows(BeanInitializationException.class, () -> new AnnotationConfigApplicationContext(
+				ApplicationTests.InvalidExpressionEagerInitConfiguration.class));
+	}
+
+	@Test
+	void listeners() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.TestConfiguration.class);
+		ApplicationTests.ListenerService service = context.getBean(ApplicationTests.ListenerService.class);
+		ApplicationTests.CountingRetryListener listener = context
+				.getBean(ApplicationTests.CountingRetryListener.class);
+		StepVerifier.create(service.service()).verifyComplete();
+		Assertions.assertEquals(3, service.getCount());
+		Assertions.assertEquals(2, listener.getBeforeRetries());
+		Assertions.assertEquals(2, listener.getAfterRetries());
+		Assertions.assertEquals("ApplicationTests.ListenerService.service()", listener.getName());
+		context.close();
+	}
+
+	@Test
+	void metrics() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.MetricsConfiguration.class);
+		ApplicationTests.Service service = context.getBean(ApplicationTests.Service.class);
+		MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+		StepVerifier.create(service.exhaustedRetry()).expectError(RuntimeException.class).verify();
+		StepVerifier.create(service.service()).verifyComplete();
+		String exhaustedRetryName = "ApplicationTests.Service.exhaustedRetry()";
+		String serviceName = "ApplicationTests.Service.service()";
+		Assertions.assertEquals(1, meterRegistry.get(MicrometerReactiveRetryListener.RETRIES)
+				.tag(MicrometerReactiveRetryListener.METHOD_TAG, exhaustedRetryName).counter().count());
+		Assertions.assertEquals(1, meterRegistry.get(MicrometerReactiveRetryListener.BACKOFF)
+				.tag(MicrometerReactiveRetryListener.METHOD_TAG, exhaustedRetryName).timer().count());
+		Assertions.assertEquals(1, meterRegistry.get(MicrometerReactiveRetryListener.EXHAUSTED)
+				.tag(MicrometerReactiveRetryListener.METHOD_TAG, exhaustedRetryName).counter().count());
+		Assertions.assertEquals(1,
+				meterRegistry.get(MicrometerReactiveRetryListener.DURATION)
+						.tag(MicrometerReactiveRetryListener.METHOD_TAG, exhaustedRetryName)
+						.tag(MicrometerReactiveRetryListener.OUTCOME_TAG, "failure").timer().count());
+		Assertions.assertEquals(1, meterRegistry.get(MicrometerReactiveRetryListener.CALLS)
+				.tag(MicrometerReactiveRetryListener.METHOD_TAG, serviceName).counter().count());
+		Assertions.assertEquals(0, meterRegistry.get(MicrometerReactiveRetryListener.RETRIES)
+				.tag(MicrometerReactiveRetryListener.METHOD_TAG, serviceName).counter().count());
+		Assertions.assertEquals(1,
+				meterRegistry.get(MicrometerReactiveRetryListener.DURATION)
+						.tag(MicrometerReactiveRetryListener.METHOD_TAG, serviceName)
+						.tag(MicrometerReactiveRetryListener.OUTCOME_TAG, "success").timer().count());
+		context.close();
+	}
+
+	@Test
+	void retryBudget() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.RetryBudgetConfiguration.class);
+		ApplicationTests.Service service = context.getBean(ApplicationTests.Service.class);
+		StepVerifier.create(service.service()).expectErrorMatches(error -> error instanceof RuntimeException
+				&& !Exceptions.isRetryExhausted(error) && Objects.equals(error.getMessage(), "error")).verify();
+		Assertions.assertEquals(2, service.getCount());
+		context.close();
+	}
+
+	@Test
+	void circuitBreaker() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.TestConfiguration.class);
+		ApplicationTests.CircuitBreakerService service = context
+				.getBean(ApplicationTests.CircuitBreakerService.class);
+		StepVerifier.create(service.service()).expectErrorMatches(error -> error instanceof RuntimeException
+				&& !Exceptions.isRetryExhausted(error) && Objects.equals(error.getMessage(), "error")).verify();
+		Assertions.assertEquals(2, service.getCount());
+		StepVerifier.create(service.service()).expectError(CircuitBreakerOpenException.class).verify();
+		Assertions.assertEquals(2, service.getCount());
+		context.close();
+	}
+
+	@Test
+	void circuitBreakerPhases() {
+		CircuitBreaker breaker = new CircuitBreaker(1.0, 1, Duration.ZERO, 1);
+		long straggler = breaker.tryAcquirePermission();
+		breaker.onError(breaker.tryAcquirePermission());
+		Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		long probe = breaker.tryAcquirePermission();
+		Assertions.assertNotEquals(CircuitBreaker.REJECTED, probe);
+		Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+		breaker.onSuccess(straggler);
+		Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+		Assertions.assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquirePermission());
+		breaker.onSuccess(probe);
+		Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		breaker.onError(straggler);
+		Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	void hedging() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.TestConfiguration.class);
+		ApplicationTests.HedgingService service = context.getBean(ApplicationTests.HedgingService.class);
+		StepVerifier.create(service.service()).expectNext("hedged").expectComplete().verify(Duration.ofSeconds(5));
+		Assertions.assertEquals(2, service.getCount());
+		context.close();
+	}
+
+	@Test
+	void hedgingListeners() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.TestConfiguration.class);
+		ApplicationTests.HedgingService service = context.getBean(ApplicationTests.HedgingService.class);
+		ApplicationTests.CountingRetryListener listener = context
+				.getBean(ApplicationTests.CountingRetryListener.class);
+		StepVerifier.create(service.failingHedges()).expectNext("hedged").expectComplete()
+				.verify(Duration.ofSeconds(5));
+		Assertions.assertEquals(3, service.getCount());
+		Assertions.assertEquals(2, listener.getBeforeRetries());
+		Assertions.assertEquals(2, listener.getAfterRetries());
+		Assertions.assertEquals("ApplicationTests.HedgingService.failingHedges()", listener.getName());
+		context.close();
+	}
+
+	@Test
+	void hedgingCircuitBreaker() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.TestConfiguration.class);
+		ApplicationTests.HedgingService service = context.getBean(ApplicationTests.HedgingService.class);
+		StepVerifier.create(service.circuitBreaker()).expectErrorMatches(error -> error instanceof RuntimeException
+				&& !Exceptions.isRetryExhausted(error) && Objects.equals(error.getMessage(), "error"))
+				.verify(Duration.ofSeconds(5));
+		Assertions.assertEquals(2, service.getCount());
+		StepVerifier.create(service.circuitBreaker()).expectError(CircuitBreakerOpenException.class)
+				.verify(Duration.ofSeconds(5));
+		Assertions.assertEquals(2, service.getCount());
+		context.close();
+	}
+
+	@Test
+	void timeouts() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.TestConfiguration.class);
+		ApplicationTests.TimeoutService service = context.getBean(ApplicationTests.TimeoutService.class);
+		StepVerifier.create(service.attemptTimeout()).expectNext("value").expectComplete()
+				.verify(Duration.ofSeconds(5));
+		Assertions.assertEquals(2, service.getCount());
+		StepVerifier.create(service.overallTimeout()).expectError(TimeoutException.class)
+				.verify(Duration.ofSeconds(5));
+		context.close();
+	}
+
+	@Test
+	void causeDepth() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.TestConfiguration.class);
+		ApplicationTests.CauseService service = context.getBean(ApplicationTests.CauseService.class);
+		StepVerifier.create(service.wrappedCause()).expectNext("value").verifyComplete();
+		Assertions.assertEquals(2, service.getCount());
+		StepVerifier.create(service.ignoredCause()).expectError(UncheckedIOException.class).verify();
+		Assertions.assertEquals(1, service.getCount());
+		context.close();
+	}
+
+	@Test
+	void publisherReturnType() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.TestConfiguration.class);
+		ApplicationTests.PublisherService service = context.getBean(ApplicationTests.PublisherService.class);
+		StepVerifier.create(service.publisher()).expectNext("first", "second").verifyComplete();
+		Assertions.assertEquals(2, service.getCount());
+		context.close();
+	}
+
+	@Test
+	void targetClassSettings() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.TestConfiguration.class);
+		ApplicationTests.QuoteService primary = context.getBean("primaryQuoteService",
+				ApplicationTests.QuoteService.class);
+		ApplicationTests.QuoteService secondary = context.getBean("secondaryQuoteService",
+				ApplicationTests.QuoteService.class);
+		assertQuoteAttempts(primary, 2);
+		assertQuoteAttempts(secondary, 5);
+		assertQuoteAttempts(primary, 2);
+		context.close();
+
+		context = new AnnotationConfigApplicationContext(ApplicationTests.TestConfiguration.class);
+		primary = context.getBean("primaryQuoteService", ApplicationTests.QuoteService.class);
+		secondary = context.getBean("secondaryQuoteService", ApplicationTests.QuoteService.class);
+		assertQuoteAttempts(secondary, 5);
+		assertQuoteAttempts(primary, 2);
+		assertQuoteAttempts(secondary, 5);
+		context.close();
+	}
+
+	private static void assertQuoteAttempts(ApplicationTests.QuoteService service, int attempts) {
+		StepVerifier.create(service.quote()).expectError(IllegalStateException.class).verify();
+		Assertions.assertEquals(attempts, service.getCount());
+	}
+
+	@Test
+	void attemptArguments() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.TestConfiguration.class);
+		ApplicationTests.ArgumentsService service = context.getBean(ApplicationTests.ArgumentsService.class);
+		StepVerifier.create(service.quote("ACME", 3)).expectNext("ACME 3").verifyComplete();
+		Assertions.assertEquals(List.of("ACME 3", "ACME 3", "ACME 3"), service.getArguments());
+		context.close();
+	}
+
+	@Test
+	void recover() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.TestConfiguration.class);
+		ApplicationTests.RecoverService service = context.getBean(ApplicationTests.RecoverService.class);
+		StepVerifier.create(service.quote("ACME")).expectNext("cached ACME").verifyComplete();
+		Assertions.assertEquals(3, service.getCount());
+		StepVerifier.create(service.quotes("ACME")).expectError(IllegalStateException.class).verify();
+		context.close();
+	}
+
+	@Test
+	void fallbackToLastSuccess() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.TestConfiguration.class);
+		ApplicationTests.FallbackService service = context.getBean(ApplicationTests.FallbackService.class);
+		StepVerifier.create(service.price("ACME")).expectNext("ACME 1").verifyComplete();
+		service.setAvailable(false);
+		StepVerifier.create(service.price("ACME")).expectNext("ACME 1").verifyComplete();
+		Assertions.assertEquals(4, service.getCount());
+		StepVerifier.create(service.price("INIT")).expectError(IllegalStateException.class).verify();
+		context.close();
+	}
+
+	@Test
+	void fallbackAfterExpiredEntry() throws InterruptedException {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.TestConfiguration.class);
+		ApplicationTests.FallbackService service = context.getBean(ApplicationTests.FallbackService.class);
+		StepVerifier.create(service.expiringPrice("ACME")).expectNext("ACME 1").verifyComplete();
+		Thread.sleep(400);
+		service.setAvailable(false);
+		StepVerifier.create(service.expiringPrice("ACME")).expectError(IllegalStateException.class).verify();
+		service.setAvailable(true);
+		StepVerifier.create(service.expiringPrice("ACME")).expectNext("ACME 4").verifyComplete();
+		StepVerifier.create(service.expiringPrice("INIT")).expectNext("INIT 5").verifyComplete();
+		service.setAvailable(false);
+		StepVerifier.create(service.expiringPrice("ACME")).expectNext("ACME 4").verifyComplete();
+		StepVerifier.create(service.expiringPrice("INIT")).expectNext("INIT 5").verifyComplete();
+		context.close();
+	}
+
+	@Test
+	void coalesce() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.TestConfiguration.class);
+		ApplicationTests.CoalesceService service = context.getBean(ApplicationTests.CoalesceService.class);
+		StepVerifier.create(Mono.zip(service.quote("ACME"), service.quote("ACME"), service.quote("INIT")))
+				.assertNext(quotes -> Assertions.assertEquals("ACME ACME INIT",
+						quotes.getT1() + " " + quotes.getT2() + " " + quotes.getT3()))
+				.verifyComplete();
+		Assertions.assertEquals(2, service.getCount());
+		StepVerifier.create(service.quote("ACME")).expectNext("ACME").verifyComplete();
+		Assertions.assertEquals(3, service.getCount());
+		context.close();
+	}
+
+	@Test
+	void expressions() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.TestConfiguration.class);
+		ApplicationTests.ExpressionService service = context.getBean(ApplicationTests.ExpressionService.class);
+		StepVerifier.create(service.maxAttempts()).expectError(IllegalStateException.class).verify();
+		Assertions.assertEquals(6, service.getCount());
+		StepVerifier.create(service.excluded()).expectError(IllegalStateException.class).verify();
+		Assertions.assertEquals(1, service.getCount());
+		StepVerifier.create(service.included()).expectError(UnsupportedOperationException.class).verify();
+		Assertions.assertEquals(3, service.getCount());
+		for (int i = 0; i < 2; i++) {
+			StepVerifier.create(service.includedCause()).expectError(IllegalStateException.class).verify();
+			Assertions.assertEquals(3, service.getCount());
+		}
+		context.close();
+	}
+
+	@Test
+	void policy() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.TestConfiguration.class);
+		ApplicationTests.PolicyService service = context.getBean(ApplicationTests.PolicyService.class);
+		ReactiveRetryPolicyRegistry registry = context.getBean(ReactiveRetryPolicyRegistry.class);
+		StepVerifier.create(service.pay()).expectError(IllegalStateException.class).verify();
+		Assertions.assertEquals(2, service.getCount());
+		registry.setPolicy("payments", ReactiveRetryPolicy.fixedDelay(3, Duration.ofMillis(10)));
+		StepVerifier.create(service.pay()).expectError(IllegalStateException.class).verify();
+		Assertions.assertEquals(4, service.getCount());
+		StandardEnvironment environment = new StandardEnvironment();
+		environment.getPropertySources().addFirst(new MapPropertySource("test",
+				Map.of(ReactiveRetryPolicyRegistry.PROPERTY_PREFIX + "payments.max-attempts", "0")));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> registry.refresh(environment));
+		environment.getPropertySources().addFirst(new MapPropertySource("refresh",
+				Map.of(ReactiveRetryPolicyRegistry.PROPERTY_PREFIX + "payments.max-attempts", "4")));
+		registry.refresh(environment);
+		StepVerifier.create(service.pay()).expectError(IllegalStateException.class).verify();
+		Assertions.assertEquals(5, service.getCount());
+		context.close();
+	}
+
+	@Test
+	void adaptiveBackoff() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.TestConfiguration.class);
+		ApplicationTests.AdaptiveBackOffService service = context
+				.getBean(ApplicationTests.AdaptiveBackOffService.class);
+		StepVerifier.create(service.recovering()).expectNext("ACME").verifyComplete();
+		Assertions.assertEquals(3, service.getCount());
+		StepVerifier.create(service.failing()).expectErrorMatches(error -> error instanceof IllegalStateException
+				&& !Exceptions.isRetryExhausted(error)).verify(Duration.ofSeconds(1));
+		Assertions.assertEquals(4, service.getCount());
+		context.close();
+	}
+
+	@Test
+	void backOffAlgorithm() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.TestConfiguration.class);
+		ApplicationTests.BackOffAlgorithmService service = context
+				.getBean(ApplicationTests.BackOffAlgorithmService.class);
+		StepVerifier.create(service.decorrelatedJitter()).expectError(IllegalStateException.class)
+				.verify(Duration.ofSeconds(1));
+		Assertions.assertEquals(4, service.getCount());
+		Duration elapsed = StepVerifier.create(service.fibonacci()).expectError(IllegalStateException.class)
+				.verify(Duration.ofSeconds(1));
+		Assertions.assertEquals(4, service.getCount());
+		// 10ms, 10ms and 20ms
+		Assertions.assertTrue(elapsed.toMillis() >= 40, () -> "Retried after " + elapsed.toMillis() + "ms");
+		context.close();
+	}
+
+	@Test
+	void retryDelayHint() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.RetryDelayHintConfiguration.class);
+		ApplicationTests.ThrottledService service = context.getBean(ApplicationTests.ThrottledService.class);
+		Duration elapsed = StepVerifier.create(service.immediately()).expectNext("ACME").verifyComplete();
+		Assertions.assertEquals(2, service.getCount());
+		Assertions.assertTrue(elapsed.toMillis() < 1000, () -> "Retried after " + elapsed.toMillis() + "ms");
+		Duration later = StepVerifier.create(service.later()).expectNext("ACME").verifyComplete();
+		Assertions.assertEquals(2, service.getCount());
+		Assertions.assertTrue(later.toMillis() >= 100, () -> "Retried after " + later.toMillis() + "ms");
+		StepVerifier.create(service.bounded()).expectNext("ACME").expectComplete().verify(Duration.ofSeconds(1));
+		Assertions.assertEquals(2, service.getCount());
+		StepVerifier.create(service.boundedWithoutBackOff()).expectNext("ACME").expectComplete()
+				.verify(Duration.ofSeconds(1));
+		Assertions.assertEquals(2, service.getCount());
+		StepVerifier.create(service.boundedFixedDelay()).expectNext("ACME").expectComplete()
+				.verify(Duration.ofSeconds(1));
+		Assertions.assertEquals(2, service.getCount());
+		Duration unhinted = StepVerifier.create(service.unhinted()).expectNext("ACME").verifyComplete();
+		Assertions.assertEquals(2, service.getCount());
+		Assertions.assertTrue(unhinted.toMillis() >= 50, () -> "Retried after " + unhinted.toMillis() + "ms");
+		context.close();
+	}
+
+	@Test
+	void parseRetryAfter() {
+		Assertions.assertEquals(Duration.ofSeconds(120), RetryDelayHint.parseRetryAfter(" 120 "));
+		Assertions.assertEquals(Duration.ZERO, RetryDelayHint.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT"));
+		Assertions.assertNull(RetryDelayHint.parseRetryAfter("soon"));
+		Assertions.assertNull(RetryDelayHint.parseRetryAfter(null));
+	}
+
+	@Test
+	void bulkhead() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.TestConfiguration.class);
+		ApplicationTests.BulkheadService service = context.getBean(ApplicationTests.BulkheadService.class);
+		StepVerifier.create(Flux.merge(service.failFast(), service.failFast().onErrorResume(
+				BulkheadFullException.class, error -> Mono.just("REJECTED")))).expectNext("REJECTED", "ACME")
+				.verifyComplete();
+		StepVerifier.create(service.failFast()).expectNext("ACME").verifyComplete();
+		StepVerifier.create(Flux.merge(service.waiting(), service.waiting())).expectNext("ACME", "ACME")
+				.verifyComplete();
+		StepVerifier.create(Flux.merge(service.retrying(), service.retrying())
+				.onErrorResume(error -> Mono.just(error.getClass().getSimpleName())).take(1)
+				.concatWith(service.retrying().onErrorResume(BulkheadFullException.class,
+						error -> Mono.just("REJECTED")).onErrorResume(error -> Mono.just("EXHAUSTED"))))
+				.expectNext("BulkheadFullException", "EXHAUSTED").verifyComplete();
+		context.close();
+	}
+
+	@Test
+	void bulkheadCancelledWaiters() throws InterruptedException {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.TestConfiguration.class);
+		ApplicationTests.BulkheadService service = context.getBean(ApplicationTests.BulkheadService.class);
+		Bulkhead bulkhead = context.getBean(Bulkhead.class);
+		Flux.range(0, 1000).flatMap(i -> service.queued().subscribeOn(Schedulers.parallel())
+				.take(Duration.ofMillis(i % 3), Schedulers.parallel())).blockLast(Duration.ofSeconds(10));
+		Thread.sleep(100);
+		Assertions.assertEquals(0, bulkhead.getInFlight());
+		StepVerifier.create(service.queued()).expectNext("ACME").verifyComplete();
+		context.close();
+	}
+
+	@Test
+	void concurrencyLimit() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.TestConfiguration.class);
+		ApplicationTests.ConcurrencyLimitService service = context
+				.getBean(ApplicationTests.ConcurrencyLimitService.class);
+		StepVerifier.create(Flux.merge(service.limited(), service.limited(), service.limited()
+				.onErrorResume(BulkheadFullException.class, error -> Mono.just("REJECTED"))))
+				.expectNext("REJECTED", "ACME", "ACME").verifyComplete();
+		context.close();
+
+		AimdConcurrencyLimit aimd = new AimdConcurrencyLimit(10, 20);
+		aimd.onSample(1_000_000, 10, false);
+		Assertions.assertEquals(11, aimd.getLimit());
+		aimd.onSample(1_000_000, 1, false);
+		Assertions.assertEquals(11, aimd.getLimit());
+		aimd.onSample(1_000_000, 11, true);
+		Assertions.assertEquals(9, aimd.getLimit());
+
+		VegasConcurrencyLimit vegas = new VegasConcurrencyLimit(10, 100);
+		vegas.onSample(10_000_000, 10, false);
+		Assertions.assertEquals(16, vegas.getLimit());
+		vegas.onSample(100_000_000, 16, false);
+		Assertions.assertEquals(14, vegas.getLimit());
+
+		GradientConcurrencyLimit gradient = new GradientConcurrencyLimit(10, 100);
+		gradient.onSample(10_000_000, 10, false);
+		int limit = gradient.getLimit();
+		for (int i = 0; i < 5; i++)
+			gradient.onSample(100_000_000, gradient.getLimit(), false);
+		Assertions.assertTrue(gradient.getLimit() < limit);
+	}
+
+	@Test
+	void scheduler() throws InterruptedException {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.SchedulerConfiguration.class);
+		ApplicationTests.ScheduledService service = context.getBean(ApplicationTests.ScheduledService.class);
+		StepVerifier.create(service.fixedDelay()).assertNext(thread -> Assertions.assertTrue(
+				thread.startsWith("reactive-retry-"), () -> "Retried on " + thread)).verifyComplete();
+		StepVerifier.create(service.backOff()).assertNext(thread -> Assertions.assertTrue(
+				thread.startsWith("reactive-retry-"), () -> "Retried on " + thread)).verifyComplete();
+		TimerWheelScheduler retryScheduler = context.getBean(TimerWheelScheduler.class);
+		context.close();
+		Assertions.assertTrue(retryScheduler.isDisposed());
+
+		TimerWheelScheduler scheduler = new TimerWheelScheduler(Duration.ofMillis(1), 8, Schedulers.parallel());
+		AtomicInteger expired = new AtomicInteger();
+		CountDownLatch latch = new CountDownLatch(5000);
+		for (int i = 0; i < 10000; i++) {
+			Disposable timer = scheduler.schedule(() -> {
+				expired.incrementAndGet();
+				latch.countDown();
+			}, i % 100, TimeUnit.MILLISECONDS);
+			if (i % 2 == 1)
+				timer.dispose();
+		}
+		Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS));
+		Thread.sleep(200);
+		Assertions.assertEquals(5000, expired.get());
+		Assertions.assertEquals(0, scheduler.getPendingTimers());
+		scheduler.dispose();
+		Assertions.assertThrows(RejectedExecutionException.class, () -> scheduler.schedule(() -> {
+		}, 1, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	void schedulerFailure() throws InterruptedException {
+		AtomicInteger executions = new AtomicInteger();
+		Scheduler executor = new Scheduler() {
+			@Override
+			public Disposable schedule(Runnable task) {
+				if (executions.getAndIncrement() == 0)
+					throw new IllegalStateException("unavailable");
+				return Schedulers.immediate().schedule(task);
+			}
+
+			@Override
+			public Worker createWorker() {
+				return Schedulers.immediate().createWorker();
+			}
+		};
+		TimerWheelScheduler scheduler = new TimerWheelScheduler(Duration.ofMillis(1), 8, executor);
+		CountDownLatch latch = new CountDownLatch(1);
+		scheduler.schedule(() -> {
+		}, 1, TimeUnit.MILLISECONDS);
+		scheduler.schedule(latch::countDown, 20, TimeUnit.MILLISECONDS);
+		Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS));
+		Assertions.assertEquals(0, scheduler.getPendingTimers());
+		scheduler.dispose();
+	}
+
+	@Test
+	void blocking() throws InterruptedException {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.TestConfiguration.class);
+		ApplicationTests.BlockingService service = context.getBean(ApplicationTests.BlockingService.class);
+		Assertions.assertEquals("VIRTUAL", service.load());
+		Assertions.assertEquals(2, service.getCount());
+		Assertions.assertThrows(IOException.class, service::store);
+		Assertions.assertEquals(2, service.getCount());
+		StepVerifier.create(service.loadEagerly()).expectNext("VIRTUAL").verifyComplete();
+		Assertions.assertThrows(IllegalStateException.class, service::notBlocking);
+		Assertions.assertEquals(1, service.getCount());
+		AtomicBoolean interrupted = new AtomicBoolean();
+		Thread caller = new Thread(() -> {
+			try {
+				service.loadSlowly();
+			} catch (InterruptedException ex) {
+				interrupted.set(Thread.currentThread().isInterrupted());
+			}
+		});
+		caller.start();
+		Thread.sleep(100);
+		caller.interrupt();
+		caller.join(5000);
+		Assertions.assertTrue(interrupted.get());
+		context.close();
+	}
+
+	@Test
+	void resume() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ApplicationTests.TestConfiguration.class);
+		ApplicationTests.ResumableService service = context.getBean(ApplicationTests.ResumableService.class);
+		StepVerifier.create(service.range(1, 5)).expectNext(1, 2, 3, 4, 5).verifyComplete();
+		Assertions.assertEquals(3, service.getCount());
+		StepVerifier.create(service.replayedRange(1, 5)).expectNext(1, 2, 1, 2, 1, 2)
+				.verifyError(IllegalStateException.class);
+		Assertions.assertEquals(3, service.getCount());
+		context.close();
+	}
+
+	private static boolean isResolved(AnnotationConfigApplicationContext context, Method method) {
+		Advice advice = context.getBean(ReactiveRetryConfiguration.class).getAdvice();
+		return ((AnnotationAwareReactiveRetryOperationsInterceptor) advice).isResolved(method);
+	}
 }